@@ -0,0 +1,53 @@
+package com.yourname.blueprinthell.model;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Fails the build if a steady-state tick allocates. Builds benchmark boards of a few sizes, runs
+ * the tick phases until every pool and scratch buffer has grown to size, then counts the bytes
+ * this thread allocates over many more ticks with the ThreadMXBean allocation counter.
+ * The phases are called directly, as in GameStateBenchmark, so the board keeps circulating
+ * packets instead of stopping at the first win. Run with ./gradlew checkAllocation (part of check).
+ */
+public final class AllocationCheck {
+    private static final int WARMUP_TICKS = 20_000;
+    private static final int MEASURED_TICKS = 10_000;
+
+    private AllocationCheck() { }
+
+    public static void main(String[] args) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean counters)
+                || !counters.isThreadAllocatedMemorySupported()) {
+            System.out.println("Allocation counters are not available on this JVM; skipping");
+            return;
+        }
+        counters.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        boolean failed = false;
+        int[][] boards = { { 16, 100, 1000 }, { 1024, 1000, 10000 } }; // systems, wires, packets
+        for (GameState.CollisionMode mode : GameState.CollisionMode.values()) {
+            for (int[] size : boards) {
+                GameState state = BenchmarkBoards.create(size[0], size[1], size[2], 42L);
+                state.setCollisionMode(mode);
+                for (int i = 0; i < WARMUP_TICKS; i++) {
+                    BenchmarkBoards.tick(state);
+                }
+                long before = counters.getThreadAllocatedBytes(threadId);
+                for (int i = 0; i < MEASURED_TICKS; i++) {
+                    BenchmarkBoards.tick(state);
+                }
+                long bytes = counters.getThreadAllocatedBytes(threadId) - before;
+                System.out.printf("%-12s %5d systems %5d wires %6d packets: %d bytes over %d ticks%n",
+                        mode, size[0], size[1], size[2], bytes, MEASURED_TICKS);
+                failed |= bytes > 0;
+            }
+        }
+        if (failed) {
+            System.err.println("A steady-state tick allocated memory");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.yourname.blueprinthell.model;
+
+import java.awt.Point;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds reproducible boards of a given size for the benchmarks.
+ * Systems sit on a square grid, every wire carries one packet and the remaining packets either
+ * wait in system buffers or fly loose across the board.
+ */
+final class BenchmarkBoards {
+    private static final int SPACING = 120;
+
+    private BenchmarkBoards() { }
+
+    static GameState create(int systemCount, int wireCount, int packetCount, long seed) {
+        Random random = new Random(seed);
+        GameState state = new GameState(Double.MAX_VALUE);
+
+        int columns = (int) Math.ceil(Math.sqrt(systemCount));
+        for (int i = 0; i < systemCount; i++) {
+            state.addSystem(new SystemNode(new Point(60 + (i % columns) * SPACING, 60 + (i / columns) * SPACING)));
+        }
+        List<SystemNode> systems = state.getSystems();
+
+        int placed = 0;
+        for (int i = 0; i < wireCount && placed < packetCount; i++) {
+            SystemNode from = systems.get(random.nextInt(systemCount));
+            SystemNode to = systems.get(random.nextInt(systemCount));
+            if (from == to) {
+                to = systems.get((systems.indexOf(from) + 1) % systemCount);
+            }
+            Point start = from.getOutputPorts().get(random.nextInt(from.getOutputPorts().size()));
+            Point end = to.getInputPorts().get(random.nextInt(to.getInputPorts().size()));
+            if (state.connect(start, end, to)) {
+                placed++;
+            }
+        }
+
+        for (SystemNode node : systems) {
+            while (placed < packetCount && node.canStorePacket() && random.nextInt(4) == 0) {
+                Point at = node.getLocation();
+                node.storePacket(state.getPacketStore().create(Packet.Shape.TRIANGLE, at.x, at.y, 0, 0, 10));
+                placed++;
+            }
+        }
+
+        int extent = columns * SPACING + 120;
+        while (placed < packetCount) {
+            state.addPacket(state.getPacketStore().create(Packet.Shape.SQUARE,
+                    random.nextInt(extent), random.nextInt(extent),
+                    random.nextInt(5) - 2, random.nextInt(5) - 2, 8 + random.nextInt(5)));
+            placed++;
+        }
+        return state;
+    }
+
+    /** Everything update() does, without stopping when the game is won or lost. */
+    static void tick(GameState state) {
+        state.releaseSpawns();
+        state.detectCollisions();
+        state.stepPackets();
+        state.deliverArrivals();
+        state.reroutePackets();
+        state.checkEndConditions();
+    }
+
+    /**
+     * A tick without collisions: packets move, arrive and get rerouted, but loose ones are never
+     * lost, so a board keeps the packet count it was built with.
+     */
+    static void circulate(GameState state) {
+        state.releaseSpawns();
+        state.stepPackets();
+        state.deliverArrivals();
+        state.reroutePackets();
+    }
+}
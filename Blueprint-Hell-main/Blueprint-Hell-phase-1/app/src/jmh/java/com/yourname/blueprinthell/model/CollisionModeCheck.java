@@ -0,0 +1,76 @@
+package com.yourname.blueprinthell.model;
+
+import com.yourname.blueprinthell.headless.HeadlessRunner;
+import com.yourname.blueprinthell.headless.WiringPlan;
+import com.yourname.blueprinthell.level.Levels;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fails the build if the spatial-hash broad phase adds noise anywhere the pairwise scan would
+ * not. Plays the sample wiring plans, randomized benchmark boards and a few crowded ones under
+ * CollisionMode.PAIRWISE and CollisionMode.SPATIAL_HASH, tick by tick, and compares where they
+ * ended, see Outcomes. SWEPT counts contacts rather than frames, so it is left out on purpose.
+ * Run with ./gradlew checkCollisionModes (part of check).
+ * <pre>
+ * CollisionModeCheck level plan-or-directory...
+ * </pre>
+ */
+public final class CollisionModeCheck {
+    private static final long MAX_TICKS = 20_000;
+    private static final long CROWDED_TICKS = 2_000; // The pairwise scan is quadratic
+    private static final int RANDOM_BOARDS = 40;
+    private static final int CROWDED_BOARDS = 5;
+
+    private CollisionModeCheck() { }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CollisionModeCheck level plan-or-directory...");
+            System.exit(2);
+        }
+        List<WiringPlan> plans = Outcomes.loadPlans(Arrays.asList(args).subList(1, args.length));
+
+        int runs = 0;
+        int failures = 0;
+        for (WiringPlan plan : plans) {
+            GameState pairwise = Levels.create(args[0]);
+            GameState hashed = Levels.create(args[0]);
+            pairwise.setCollisionMode(GameState.CollisionMode.PAIRWISE);
+            hashed.setCollisionMode(GameState.CollisionMode.SPATIAL_HASH);
+            HeadlessRunner.run(pairwise, plan, MAX_TICKS, false);
+            HeadlessRunner.run(hashed, plan, MAX_TICKS, false);
+            failures += compare(plan.getName(), pairwise, hashed);
+            runs++;
+        }
+        for (int seed = 0; seed < RANDOM_BOARDS; seed++) {
+            GameState pairwise = Outcomes.randomBoard(seed, (int) MAX_TICKS / 4);
+            GameState hashed = Outcomes.randomBoard(seed, (int) MAX_TICKS / 4);
+            failures += play("board " + seed, pairwise, hashed, MAX_TICKS);
+            runs++;
+        }
+        for (int seed = 0; seed < CROWDED_BOARDS; seed++) {
+            GameState pairwise = BenchmarkBoards.create(64, 128, 2_000, seed);
+            GameState hashed = BenchmarkBoards.create(64, 128, 2_000, seed);
+            failures += play("crowded board " + seed, pairwise, hashed, CROWDED_TICKS);
+            runs++;
+        }
+        System.out.printf("%d runs, %d differ between PAIRWISE and SPATIAL_HASH%n", runs, failures);
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static int play(String run, GameState pairwise, GameState hashed, long maxTicks) {
+        pairwise.setCollisionMode(GameState.CollisionMode.PAIRWISE);
+        hashed.setCollisionMode(GameState.CollisionMode.SPATIAL_HASH);
+        Outcomes.runTo(pairwise, maxTicks);
+        Outcomes.runTo(hashed, maxTicks);
+        return compare(run, pairwise, hashed);
+    }
+
+    private static int compare(String run, GameState pairwise, GameState hashed) {
+        return Outcomes.compare(run, "PAIRWISE", pairwise, "SPATIAL_HASH", hashed);
+    }
+}
@@ -0,0 +1,82 @@
+package com.yourname.blueprinthell.model;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times one tick of GameState.update() and each of its phases on generated boards.
+ * Each iteration builds a fresh board and circulates its packets for WARMUP_TICKS first, so the
+ * measured calls see pools, buffers and caches in their steady state instead of a board that has
+ * never ticked. Collisions thin out loose packets within a few ticks, so every call that changes
+ * the board is timed as one batch straight after the warm-up. Collision detection only adds noise,
+ * so it runs against the same board for a whole timed iteration.
+ * Run with ./gradlew jmh, results land in app/build/results/jmh.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, batchSize = GameStateBenchmark.BATCH)
+@Measurement(iterations = 20, batchSize = GameStateBenchmark.BATCH)
+@Fork(1)
+public class GameStateBenchmark {
+    static final int BATCH = 20;
+    private static final int WARMUP_TICKS = 300;
+
+    @Param({"10", "1000", "10000", "100000"})
+    public int packets;
+
+    @Param({"100", "1000"})
+    public int wires;
+
+    @Param({"16", "1024"})
+    public int systems;
+
+    private GameState state;
+
+    @Setup(Level.Iteration)
+    public void buildBoard() {
+        state = BenchmarkBoards.create(systems, wires, packets, 42L);
+        for (int i = 0; i < WARMUP_TICKS; i++) {
+            BenchmarkBoards.circulate(state);
+        }
+    }
+
+    // Phase by phase, because update() stops at the first win
+    @Benchmark
+    public GameState update() {
+        BenchmarkBoards.tick(state);
+        return state;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public GameState collision() {
+        state.detectCollisions();
+        return state;
+    }
+
+    @Benchmark
+    public GameState movementAndArrival() {
+        state.movePackets();
+        return state;
+    }
+
+    @Benchmark
+    public GameState rerouting() {
+        state.reroutePackets();
+        return state;
+    }
+}
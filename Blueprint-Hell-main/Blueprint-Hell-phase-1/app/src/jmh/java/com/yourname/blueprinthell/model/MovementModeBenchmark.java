@@ -0,0 +1,63 @@
+package com.yourname.blueprinthell.model;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the serial and parallel movement phase on large boards. The threshold is left at its
+ * default, so the smallest size shows what the parallel mode costs when it stays serial.
+ * The board is built once per run and kept circulating without collisions, so none of its packets
+ * are ever lost. Before each iteration a few more circulating ticks put back on the wires the
+ * packets that arrived during the last one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovementModeBenchmark {
+    private static final int WARMUP_TICKS = 100;
+    private static final int TICKS_BETWEEN_ITERATIONS = 20;
+
+    @Param({"10000", "100000", "1000000"})
+    public int packets;
+
+    @Param({"SERIAL", "PARALLEL"})
+    public GameState.MovementMode movementMode;
+
+    private GameState state;
+
+    @Setup(Level.Trial)
+    public void buildBoard() {
+        state = BenchmarkBoards.create(1024, 1000, packets, 42L);
+        state.setMovementMode(movementMode);
+        for (int i = 0; i < WARMUP_TICKS; i++) {
+            BenchmarkBoards.circulate(state);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void refillWires() {
+        for (int i = 0; i < TICKS_BETWEEN_ITERATIONS; i++) {
+            BenchmarkBoards.circulate(state);
+        }
+    }
+
+    @Benchmark
+    public GameState movementAndArrival() {
+        state.movePackets();
+        return state;
+    }
+}
@@ -0,0 +1,87 @@
+package com.yourname.blueprinthell.model;
+
+import com.yourname.blueprinthell.headless.HeadlessRunner;
+import com.yourname.blueprinthell.headless.WiringPlan;
+import com.yourname.blueprinthell.level.Levels;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fails the build if MovementMode.PARALLEL ends anywhere MovementMode.SERIAL would not. The
+ * parallel threshold is dropped to one packet so every tick goes through ParallelMover; the
+ * sample wiring plans and randomized benchmark boards are played in every collision mode, and a
+ * few busy boards circulate enough packets to be split into several fork-join chunks.
+ * Results are compared as in Outcomes.
+ * Run with ./gradlew checkMovementModes (part of check).
+ * <pre>
+ * MovementModeCheck level plan-or-directory...
+ * </pre>
+ */
+public final class MovementModeCheck {
+    private static final long MAX_TICKS = 20_000;
+    private static final int BUSY_TICKS = 2_000;
+    private static final int RANDOM_BOARDS = 20;
+    private static final int BUSY_BOARDS = 3;
+
+    private MovementModeCheck() { }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: MovementModeCheck level plan-or-directory...");
+            System.exit(2);
+        }
+        List<WiringPlan> plans = Outcomes.loadPlans(Arrays.asList(args).subList(1, args.length));
+
+        int runs = 0;
+        int failures = 0;
+        for (GameState.CollisionMode mode : GameState.CollisionMode.values()) {
+            for (WiringPlan plan : plans) {
+                GameState serial = Levels.create(args[0]);
+                GameState parallel = Levels.create(args[0]);
+                setModes(serial, parallel, mode);
+                HeadlessRunner.run(serial, plan, MAX_TICKS, false);
+                HeadlessRunner.run(parallel, plan, MAX_TICKS, false);
+                failures += compare(plan.getName() + " " + mode, serial, parallel);
+                runs++;
+            }
+            for (int seed = 0; seed < RANDOM_BOARDS; seed++) {
+                GameState serial = Outcomes.randomBoard(seed, (int) MAX_TICKS / 4);
+                GameState parallel = Outcomes.randomBoard(seed, (int) MAX_TICKS / 4);
+                setModes(serial, parallel, mode);
+                Outcomes.runTo(serial, MAX_TICKS);
+                Outcomes.runTo(parallel, MAX_TICKS);
+                failures += compare("board " + seed + " " + mode, serial, parallel);
+                runs++;
+            }
+        }
+        // Without collisions the packets keep moving, thousands of them at a time
+        for (int seed = 0; seed < BUSY_BOARDS; seed++) {
+            GameState serial = BenchmarkBoards.create(4_096, 8_192, 30_000, seed);
+            GameState parallel = BenchmarkBoards.create(4_096, 8_192, 30_000, seed);
+            setModes(serial, parallel, GameState.CollisionMode.SPATIAL_HASH);
+            for (int i = 0; i < BUSY_TICKS; i++) {
+                BenchmarkBoards.circulate(serial);
+                BenchmarkBoards.circulate(parallel);
+            }
+            failures += compare("busy board " + seed, serial, parallel);
+            runs++;
+        }
+        System.out.printf("%d runs, %d differ between SERIAL and PARALLEL%n", runs, failures);
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void setModes(GameState serial, GameState parallel, GameState.CollisionMode mode) {
+        serial.setCollisionMode(mode);
+        parallel.setCollisionMode(mode);
+        serial.setMovementMode(GameState.MovementMode.SERIAL);
+        parallel.setMovementMode(GameState.MovementMode.PARALLEL);
+        parallel.setParallelThreshold(1);
+    }
+
+    private static int compare(String run, GameState serial, GameState parallel) {
+        return Outcomes.compare(run, "SERIAL", serial, "PARALLEL", parallel);
+    }
+}
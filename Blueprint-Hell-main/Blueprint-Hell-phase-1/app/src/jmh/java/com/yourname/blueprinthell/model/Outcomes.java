@@ -0,0 +1,96 @@
+package com.yourname.blueprinthell.model;
+
+import com.yourname.blueprinthell.headless.WiringPlan;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * What the equivalence checks share: the boards they play and the comparison of where two runs
+ * of the same board ended. Two runs match if tick, status, delivered, lost and coins agree and
+ * every moving packet has bit-for-bit the same position and noise.
+ */
+final class Outcomes {
+
+    private Outcomes() { }
+
+    /** The plans in the given files and directories, directories read in name order. */
+    static List<WiringPlan> loadPlans(List<String> paths) throws IOException {
+        List<WiringPlan> plans = new ArrayList<>();
+        for (String path : paths) {
+            for (Path file : planFiles(Paths.get(path))) {
+                plans.add(WiringPlan.load(file));
+            }
+        }
+        return plans;
+    }
+
+    /**
+     * A benchmark board of random size, from small sparse ones up to busy ones, with up to twenty
+     * spawns scheduled before spawnTicks.
+     */
+    static GameState randomBoard(int seed, int spawnTicks) {
+        Random random = new Random(seed);
+        int systems = 4 << random.nextInt(4);
+        GameState state = BenchmarkBoards.create(systems, systems * 2, 5 + random.nextInt(200), seed);
+        List<SystemNode> nodes = state.getSystems();
+        int spawns = random.nextInt(20);
+        for (int i = 0; i < spawns; i++) {
+            Packet.Shape shape = random.nextBoolean() ? Packet.Shape.SQUARE : Packet.Shape.TRIANGLE;
+            state.scheduleSpawn(random.nextInt(spawnTicks), nodes.get(random.nextInt(systems)), shape, 8 + random.nextInt(5));
+        }
+        return state;
+    }
+
+    /** Calls update() until the game ends or the tick reaches maxTicks. */
+    static void runTo(GameState state, long maxTicks) {
+        while (state.getCurrentStatus() == GameState.GameStatus.RUNNING && state.getTick() < maxTicks) {
+            state.update();
+        }
+    }
+
+    /** Prints what differs and returns 1, or returns 0 if the two runs ended in the same place. */
+    static int compare(String run, String expectedName, GameState expected, String actualName, GameState actual) {
+        String want = summary(expected);
+        String got = summary(actual);
+        if (!want.equals(got)) {
+            System.out.println(run + ": " + expectedName + " " + want + ", " + actualName + " " + got);
+            return 1;
+        }
+        PacketStore a = expected.getPacketStore();
+        PacketStore b = actual.getPacketStore();
+        for (int i = 0; i < a.getMovingCount(); i++) {
+            int slotA = a.getMovingSlot(i);
+            int slotB = b.getMovingSlot(i);
+            if (Double.doubleToLongBits(a.getX(slotA)) != Double.doubleToLongBits(b.getX(slotB))
+                    || Double.doubleToLongBits(a.getY(slotA)) != Double.doubleToLongBits(b.getY(slotB))
+                    || Double.doubleToLongBits(a.getNoise(slotA)) != Double.doubleToLongBits(b.getNoise(slotB))) {
+                System.out.printf("%s: moving packet %d at (%s, %s) noise %s with %s, (%s, %s) noise %s with %s%n",
+                        run, i, a.getX(slotA), a.getY(slotA), a.getNoise(slotA), expectedName,
+                        b.getX(slotB), b.getY(slotB), b.getNoise(slotB), actualName);
+                return 1;
+            }
+        }
+        return 0;
+    }
+
+    private static String summary(GameState state) {
+        return "tick " + state.getTick() + " " + state.getCurrentStatus() + " delivered " + state.getPacketsDelivered()
+                + " lost " + state.getPacketLoss() + " coins " + state.getCoins()
+                + " moving " + state.getPacketStore().getMovingCount();
+    }
+
+    private static List<Path> planFiles(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return List.of(path);
+        }
+        try (Stream<Path> files = Files.list(path)) {
+            return files.filter(p -> p.toString().endsWith(".plan")).sorted().toList();
+        }
+    }
+}
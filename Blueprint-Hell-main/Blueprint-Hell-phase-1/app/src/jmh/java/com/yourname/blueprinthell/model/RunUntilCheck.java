@@ -0,0 +1,66 @@
+package com.yourname.blueprinthell.model;
+
+import com.yourname.blueprinthell.headless.HeadlessRunner;
+import com.yourname.blueprinthell.headless.WiringPlan;
+import com.yourname.blueprinthell.level.Levels;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fails the build if GameState.runUntil() ends anywhere a plain update() loop would not. Plays the
+ * sample wiring plans and randomized benchmark boards in every collision mode both ways and
+ * compares where they ended, see Outcomes.
+ * The random boards are run in uneven chunks, so idle stretches get cut at arbitrary ticks.
+ * Run with ./gradlew checkRunUntil (part of check).
+ * <pre>
+ * RunUntilCheck level plan-or-directory...
+ * </pre>
+ */
+public final class RunUntilCheck {
+    private static final long MAX_TICKS = 20_000;
+    private static final int RANDOM_BOARDS = 40;
+
+    private RunUntilCheck() { }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: RunUntilCheck level plan-or-directory...");
+            System.exit(2);
+        }
+        List<WiringPlan> plans = Outcomes.loadPlans(Arrays.asList(args).subList(1, args.length));
+
+        int runs = 0;
+        int failures = 0;
+        for (GameState.CollisionMode mode : GameState.CollisionMode.values()) {
+            for (WiringPlan plan : plans) {
+                GameState perTick = Levels.create(args[0]);
+                GameState skipping = Levels.create(args[0]);
+                perTick.setCollisionMode(mode);
+                skipping.setCollisionMode(mode);
+                HeadlessRunner.run(perTick, plan, MAX_TICKS, false);
+                HeadlessRunner.run(skipping, plan, MAX_TICKS, true);
+                failures += Outcomes.compare(plan.getName() + " " + mode, "update()", perTick, "runUntil()", skipping);
+                runs++;
+            }
+            for (int seed = 0; seed < RANDOM_BOARDS; seed++) {
+                GameState perTick = Outcomes.randomBoard(seed, (int) MAX_TICKS / 4);
+                GameState skipping = Outcomes.randomBoard(seed, (int) MAX_TICKS / 4);
+                perTick.setCollisionMode(mode);
+                skipping.setCollisionMode(mode);
+                Outcomes.runTo(perTick, MAX_TICKS);
+                Random chunks = new Random(seed);
+                while (skipping.getCurrentStatus() == GameState.GameStatus.RUNNING && skipping.getTick() < MAX_TICKS) {
+                    skipping.runUntil(Math.min(MAX_TICKS, skipping.getTick() + 1 + chunks.nextInt(2_000)));
+                }
+                failures += Outcomes.compare("board " + seed + " " + mode, "update()", perTick, "runUntil()", skipping);
+                runs++;
+            }
+        }
+        System.out.printf("%d runs, %d differ between update() and runUntil()%n", runs, failures);
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.yourname.blueprinthell;
 
 import com.yourname.blueprinthell.view.GamePanel;
+import com.yourname.blueprinthell.view.LevelsPanel;
 import com.yourname.blueprinthell.view.MainMenuPanel;
 import com.yourname.blueprinthell.view.ShopPanel; // --- NEW: Import ShopPanel ---
 import javax.swing.*;
@@ -12,20 +13,22 @@ public class App {
             JFrame frame = new JFrame("Blueprint Hell");
             frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE); // Changed for easier closing
             frame.setSize(1000, 700);
-            frame.setResizable(false);
+            frame.setMinimumSize(new Dimension(640, 480)); // Big boards are panned and zoomed, see GameController
 
             CardLayout cardLayout = new CardLayout();
             JPanel mainPanel = new JPanel(cardLayout);
 
             // Create all game views
-            MainMenuPanel menu = new MainMenuPanel(cardLayout, mainPanel);
             GamePanel game = new GamePanel(cardLayout, mainPanel); // --- UPDATED: Pass layout to GamePanel ---
+            MainMenuPanel menu = new MainMenuPanel(cardLayout, mainPanel, game);
             ShopPanel shop = new ShopPanel(cardLayout, mainPanel);   // --- NEW: Create ShopPanel ---
+            LevelsPanel levels = new LevelsPanel(cardLayout, mainPanel, game);
 
             // Add all panels to the layout
             mainPanel.add(menu, "menu");
             mainPanel.add(game, "game");
             mainPanel.add(shop, "shop"); // --- NEW: Add shop to layout ---
+            mainPanel.add(levels, "levels");
 
             frame.setContentPane(mainPanel);
             frame.setLocationRelativeTo(null); // Center the window
@@ -0,0 +1,82 @@
+package com.yourname.blueprinthell.controller;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+
+/**
+ * Which part of the board the panel shows: the world point at the panel's top-left corner and
+ * the zoom, in screen pixels per world pixel. Cameras are immutable, so the simulation thread
+ * can read the current one while the EDT pans and zooms by replacing it.
+ */
+public final class Camera {
+    /** The board at its natural size, from the origin; how the game has always been drawn. */
+    public static final Camera IDENTITY = new Camera(0, 0, 1.0);
+
+    static final double MIN_SCALE = 0.02;
+    static final double MAX_SCALE = 4.0;
+
+    private final double originX;
+    private final double originY;
+    private final double scale;
+
+    private Camera(double originX, double originY, double scale) {
+        this.originX = originX;
+        this.originY = originY;
+        this.scale = scale;
+    }
+
+    public double getScale() { return scale; }
+
+    public int toScreenX(double worldX) {
+        return (int) Math.round((worldX - originX) * scale);
+    }
+
+    public int toScreenY(double worldY) {
+        return (int) Math.round((worldY - originY) * scale);
+    }
+
+    public Point toWorld(Point screen) {
+        return new Point((int) Math.round(originX + screen.x / scale), (int) Math.round(originY + screen.y / scale));
+    }
+
+    /** The screen area covering a world rectangle; empty stays empty. */
+    public Rectangle toScreen(Rectangle world) {
+        if (world.isEmpty()) {
+            return new Rectangle();
+        }
+        int left = (int) Math.floor((world.x - originX) * scale);
+        int top = (int) Math.floor((world.y - originY) * scale);
+        int right = (int) Math.ceil((world.x + world.width - originX) * scale);
+        int bottom = (int) Math.ceil((world.y + world.height - originY) * scale);
+        return new Rectangle(left, top, Math.max(1, right - left), Math.max(1, bottom - top));
+    }
+
+    /** The world area a panel of the given size shows. */
+    public Rectangle visibleWorld(int width, int height) {
+        int left = (int) Math.floor(originX);
+        int top = (int) Math.floor(originY);
+        return new Rectangle(left, top, (int) Math.ceil(originX + width / scale) - left + 1,
+                (int) Math.ceil(originY + height / scale) - top + 1);
+    }
+
+    /** Maps world coordinates to screen coordinates, for drawing the board in world units. */
+    public AffineTransform getTransform() {
+        AffineTransform transform = AffineTransform.getScaleInstance(scale, scale);
+        transform.translate(-originX, -originY);
+        return transform;
+    }
+
+    /** Moves the view so the board follows the mouse by the given number of screen pixels. */
+    public Camera panBy(int screenDx, int screenDy) {
+        return new Camera(originX - screenDx / scale, originY - screenDy / scale, scale);
+    }
+
+    /** Zooms by the factor, within limits, keeping the world point under the screen point where it is. */
+    public Camera zoomAt(Point screen, double factor) {
+        double newScale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale * factor));
+        double worldX = originX + screen.x / scale;
+        double worldY = originY + screen.y / scale;
+        return new Camera(worldX - screen.x / newScale, worldY - screen.y / newScale, newScale);
+    }
+}
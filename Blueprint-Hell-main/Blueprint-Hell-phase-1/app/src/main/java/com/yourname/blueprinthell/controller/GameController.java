@@ -1,48 +1,68 @@
 package com.yourname.blueprinthell.controller;
 
 import com.yourname.blueprinthell.model.GameState;
-import com.yourname.blueprinthell.model.Packet;
 import com.yourname.blueprinthell.model.SystemNode;
-import com.yourname.blueprinthell.model.Wire;
+import com.yourname.blueprinthell.replay.ReplayRecorder;
 import java.awt.Point;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import javax.swing.JPanel;
-import javax.swing.Timer;
+import javax.swing.SwingUtilities;
 
 public class GameController {
 
-    private GameState gameState;
     private JPanel gamePanel; // The view
-    private Timer gameTimer;
+    private SimulationLoop simulation; // The only way to reach the GameState from the EDT
+    private ReplayRecorder recorder; // Null when the session is not recorded
 
     // Wiring state
     private boolean isWiring = false;
     private Point wireStartPoint = null;
-    private SystemNode wireStartNode = null;
+    private int wireStartIndex = -1; // Position of the start port's system in the system list
     private Point currentMousePos = null;
+    private Point snapPoint = null; // Input port the wire would connect to if released now
+    private final PortIndex portIndex = new PortIndex();
 
-    public GameController(GameState gameState, JPanel gamePanel, Timer timer) {
-        this.gameState = gameState;
+    // View of the board; read by the panel, also from the simulation thread
+    private static final double ZOOM_STEP = 1.1; // Per notch of the mouse wheel
+    private volatile Camera camera = Camera.IDENTITY;
+    private Point panFrom = null; // Screen point the board is being dragged from, or null
+
+    public GameController(JPanel gamePanel, SimulationLoop simulation) {
+        this(gamePanel, simulation, null);
+    }
+
+    public GameController(JPanel gamePanel, SimulationLoop simulation, ReplayRecorder recorder) {
         this.gamePanel = gamePanel;
-        this.gameTimer = timer;
+        this.simulation = simulation;
+        this.recorder = recorder;
         addListeners();
     }
 
+    private boolean isRunning() {
+        return simulation.getSnapshot().getStatus() == GameState.GameStatus.RUNNING;
+    }
+
+    // Left button lays wires; the right or middle button drags the board and the wheel zooms.
+    // The wiring handlers get world coordinates, so they work the same at any zoom
     private void addListeners() {
         gamePanel.addMouseListener(new MouseAdapter() {
             @Override
             public void mousePressed(MouseEvent e) {
-                if (gameState.getCurrentStatus() == GameState.GameStatus.RUNNING) {
-                    handleMousePress(e.getPoint());
+                if (!SwingUtilities.isLeftMouseButton(e)) {
+                    panFrom = e.getPoint();
+                } else if (isRunning()) {
+                    handleMousePress(camera.toWorld(e.getPoint()));
                 }
             }
             @Override
             public void mouseReleased(MouseEvent e) {
-                if (gameState.getCurrentStatus() == GameState.GameStatus.RUNNING) {
-                    handleMouseRelease(e.getPoint());
+                if (!SwingUtilities.isLeftMouseButton(e)) {
+                    panFrom = null;
+                } else if (isRunning()) {
+                    handleMouseRelease(camera.toWorld(e.getPoint()));
                 }
             }
         });
@@ -50,61 +70,81 @@ public class GameController {
         gamePanel.addMouseMotionListener(new MouseAdapter() {
             @Override
             public void mouseDragged(MouseEvent e) {
-                if (gameState.getCurrentStatus() == GameState.GameStatus.RUNNING) {
-                    handleMouseDrag(e.getPoint());
+                if (panFrom != null) {
+                    setCamera(camera.panBy(e.getX() - panFrom.x, e.getY() - panFrom.y));
+                    panFrom = e.getPoint();
+                } else if (isRunning()) {
+                    handleMouseDrag(camera.toWorld(e.getPoint()));
                 }
             }
         });
-    }
 
-    private void handleMousePress(Point pressPoint) {
-        for (SystemNode node : gameState.getSystems()) {
-            for (Point portPos : node.getOutputPorts()) {
-                if (pressPoint.distance(portPos) < SystemNode.PORT_SIZE) {
-                    isWiring = true;
-                    wireStartNode = node;
-                    wireStartPoint = portPos;
-                    currentMousePos = pressPoint;
-                    return;
+        gamePanel.addMouseWheelListener(e ->
+                setCamera(camera.zoomAt(e.getPoint(), Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation()))));
+
+        gamePanel.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_HOME) {
+                    setCamera(Camera.IDENTITY);
                 }
             }
+        });
+    }
+
+    private void setCamera(Camera next) {
+        camera = next;
+        gamePanel.repaint();
+    }
+
+    // Brings the port index up to date with the systems in the latest snapshot
+    private PortIndex ports() {
+        portIndex.update(simulation.getSnapshot().getSystems());
+        return portIndex;
+    }
+
+    private void handleMousePress(Point pressPoint) {
+        PortIndex.Hit hit = ports().nearestOutput(pressPoint);
+        if (hit != null) {
+            isWiring = true;
+            wireStartIndex = hit.systemIndex;
+            wireStartPoint = hit.port;
+            currentMousePos = pressPoint;
+            snapPoint = null;
         }
     }
 
     private void handleMouseDrag(Point dragPoint) {
         if (isWiring) {
             currentMousePos = dragPoint;
+            PortIndex.Hit hit = ports().nearestInput(dragPoint, wireStartIndex);
+            snapPoint = hit == null ? null : hit.port;
             gamePanel.repaint();
         }
     }
 
     private void handleMouseRelease(Point releasePoint) {
         if (isWiring) {
-            for (SystemNode destNode : gameState.getSystems()) {
-                if (destNode == wireStartNode) continue;
-
-                for (Point portPos : destNode.getInputPorts()) {
-                    if (releasePoint.distance(portPos) < SystemNode.PORT_SIZE) {
-                        Wire newWire = new Wire(wireStartPoint, portPos);
-                        
-                        if (gameState.addWire(newWire, destNode)) {
-                            double length = newWire.getLength();
-                            int speed = 2;
-                            Point velocity = new Point(
-                                    (int) ((portPos.x - wireStartPoint.x) * speed / length),
-                                    (int) ((portPos.y - wireStartPoint.y) * speed / length)
-                            );
-                            Packet newPacket = new Packet(Packet.Shape.SQUARE, new Point(wireStartPoint), velocity, 10);
-                            newWire.placePacket(newPacket); // Associate packet with wire
-                            gameState.addPacket(newPacket);
-                        }
-                        break;
+            PortIndex.Hit hit = ports().nearestInput(releasePoint, wireStartIndex);
+            if (hit != null) {
+                Point start = wireStartPoint;
+                Point end = hit.port;
+                SystemNode destNode = hit.node;
+                int destIndex = hit.systemIndex;
+                // The wire is built on the simulation thread, between two ticks;
+                // it is recorded there too, stamped with the tick it lands before.
+                // Only wires the board accepted are recorded, so a replay doesn't depend on the crossing rule
+                simulation.submit(gameState -> {
+                    long tick = gameState.getTick();
+                    if (gameState.connect(start, end, destNode) && recorder != null) {
+                        recorder.recordWire(tick, start, end, destIndex);
                     }
-                }
+                });
             }
             isWiring = false;
-            wireStartNode = null;
+            wireStartIndex = -1;
             wireStartPoint = null;
+            snapPoint = null;
             gamePanel.repaint();
         }
     }
@@ -113,4 +153,6 @@ public class GameController {
     public boolean isWiring() { return isWiring; }
     public Point getWireStartPoint() { return wireStartPoint; }
     public Point getCurrentMousePos() { return currentMousePos; }
+    public Point getSnapPoint() { return snapPoint; }
+    public Camera getCamera() { return camera; }
 }
\ No newline at end of file
@@ -0,0 +1,151 @@
+package com.yourname.blueprinthell.controller;
+
+import com.yourname.blueprinthell.model.SystemNode;
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Grid of the ports on the board, for finding the port under the mouse without looking at every
+ * system. Cells are PORT_SIZE wide, so every port within PORT_SIZE of a point sits in the point's
+ * cell or one of its eight neighbours. Systems are only ever added to a board, so the index just
+ * picks up the ones it has not seen yet.
+ */
+final class PortIndex {
+    private static final int CELL_SIZE = SystemNode.PORT_SIZE;
+    private static final int EMPTY = -1;
+
+    /** A port together with the system it belongs to. */
+    static final class Hit {
+        final Point port;
+        final SystemNode node;
+        final int systemIndex; // Position of the node in the board's system list
+
+        Hit(Point port, SystemNode node, int systemIndex) {
+            this.port = port;
+            this.node = node;
+            this.systemIndex = systemIndex;
+        }
+    }
+
+    private final Ports inputs = new Ports();
+    private final Ports outputs = new Ports();
+    private SystemNode[] nodes = new SystemNode[0];
+    private int indexedSystems = 0;
+
+    /** Adds the systems at the end of the list that are not indexed yet. */
+    void update(List<SystemNode> systems) {
+        if (systems.size() > nodes.length) {
+            nodes = Arrays.copyOf(nodes, Math.max(16, Math.max(systems.size(), nodes.length * 2)));
+        }
+        for (; indexedSystems < systems.size(); indexedSystems++) {
+            SystemNode node = systems.get(indexedSystems);
+            nodes[indexedSystems] = node;
+            List<Point> in = node.getInputPorts();
+            for (int i = 0; i < in.size(); i++) {
+                inputs.add(in.get(i).x, in.get(i).y, indexedSystems, i);
+            }
+            List<Point> out = node.getOutputPorts();
+            for (int i = 0; i < out.size(); i++) {
+                outputs.add(out.get(i).x, out.get(i).y, indexedSystems, i);
+            }
+        }
+    }
+
+    /** The output port closest to the point and less than PORT_SIZE away, or null. */
+    Hit nearestOutput(Point p) {
+        int found = outputs.nearest(p, -1);
+        return found == EMPTY ? null
+                : new Hit(nodes[outputs.system[found]].getOutputPorts().get(outputs.port[found]),
+                        nodes[outputs.system[found]], outputs.system[found]);
+    }
+
+    /** The input port closest to the point and less than PORT_SIZE away, not counting system excludeIndex; or null. */
+    Hit nearestInput(Point p, int excludeIndex) {
+        int found = inputs.nearest(p, excludeIndex);
+        return found == EMPTY ? null
+                : new Hit(nodes[inputs.system[found]].getInputPorts().get(inputs.port[found]),
+                        nodes[inputs.system[found]], inputs.system[found]);
+    }
+
+    // One kind of port, hashed by cell into chained buckets of plain int arrays
+    private static final class Ports {
+        int count = 0;
+        int[] x = new int[0];
+        int[] y = new int[0];
+        int[] system = new int[0]; // Index of the owning system
+        int[] port = new int[0];   // Index of the port on that system
+        int[] next = new int[0];   // Next entry in the same bucket
+        int[] head = new int[0];   // Bucket -> first entry
+        int mask;
+
+        void add(int px, int py, int systemIndex, int portIndex) {
+            if (count == x.length) {
+                grow();
+            }
+            x[count] = px;
+            y[count] = py;
+            system[count] = systemIndex;
+            port[count] = portIndex;
+            link(count);
+            count++;
+        }
+
+        // The entry closest to p and less than PORT_SIZE away, skipping one system; EMPTY if none
+        int nearest(Point p, int skipSystem) {
+            if (count == 0) {
+                return EMPTY;
+            }
+            int best = EMPTY;
+            double bestDistance = SystemNode.PORT_SIZE;
+            int cx = cellOf(p.x);
+            int cy = cellOf(p.y);
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int e = head[bucketOf(cx + dx, cy + dy)]; e != EMPTY; e = next[e]) {
+                        if (system[e] == skipSystem) {
+                            continue;
+                        }
+                        double distance = Point.distance(p.x, p.y, x[e], y[e]);
+                        // Ties go to the system added first, as they did when every system was scanned
+                        if (distance < bestDistance
+                                || (best != EMPTY && distance == bestDistance && system[e] < system[best])) {
+                            best = e;
+                            bestDistance = distance;
+                        }
+                    }
+                }
+            }
+            return best;
+        }
+
+        private void link(int e) {
+            int bucket = bucketOf(cellOf(x[e]), cellOf(y[e]));
+            next[e] = head[bucket];
+            head[bucket] = e;
+        }
+
+        private void grow() {
+            int capacity = Math.max(64, x.length * 2);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            system = Arrays.copyOf(system, capacity);
+            port = Arrays.copyOf(port, capacity);
+            next = new int[capacity];
+            head = new int[capacity * 2];
+            mask = head.length - 1;
+            Arrays.fill(head, EMPTY);
+            for (int e = 0; e < count; e++) {
+                link(e);
+            }
+        }
+
+        private int bucketOf(int cx, int cy) {
+            return ((cx * 73856093) ^ (cy * 19349663)) & mask;
+        }
+    }
+
+    private static int cellOf(int coordinate) {
+        return Math.floorDiv(coordinate, CELL_SIZE);
+    }
+}
@@ -0,0 +1,125 @@
+package com.yourname.blueprinthell.controller;
+
+import com.yourname.blueprinthell.model.GameSnapshot;
+import com.yourname.blueprinthell.model.GameState;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Runs GameState.update() on its own thread at a fixed 60 ticks per second.
+ * Time is gathered in an accumulator, so after a stall the loop runs several ticks back to back
+ * to catch up. The GameState is only ever touched by this thread: other threads send changes
+ * through submit() and read the latest published GameSnapshot.
+ */
+public class SimulationLoop implements Runnable {
+    public static final int TICKS_PER_SECOND = 60;
+    private static final long TICK_NANOS = 1_000_000_000L / TICKS_PER_SECOND;
+    private static final int MAX_CATCH_UP_TICKS = 5; // Beyond this the lost time is dropped
+
+    private final GameState gameState;
+    private final Runnable onPublish;
+    private final Queue<Consumer<GameState>> commands = new ConcurrentLinkedQueue<>();
+
+    private volatile GameSnapshot snapshot;
+    private volatile boolean running = false;
+    private Thread thread;
+
+    public SimulationLoop(GameState gameState, Runnable onPublish) {
+        this.gameState = gameState;
+        this.onPublish = onPublish;
+        this.snapshot = GameSnapshot.capture(gameState, null);
+    }
+
+    public synchronized void start() {
+        if (running || snapshot.isFinished()) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this, "simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (thread != null && thread != Thread.currentThread()) {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        thread = null;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Queues a change to be applied on the simulation thread before the next tick. */
+    public void submit(Consumer<GameState> command) {
+        commands.add(command);
+    }
+
+    public GameSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public void run() {
+        long previous = System.nanoTime();
+        long accumulator = 0;
+        while (running) {
+            long now = System.nanoTime();
+            accumulator += now - previous;
+            previous = now;
+
+            boolean changed = drainCommands();
+            if (gameState.getCurrentStatus() != GameState.GameStatus.RUNNING) {
+                accumulator = 0; // Don't build up a backlog while paused
+            }
+
+            int ticks = 0;
+            while (accumulator >= TICK_NANOS && ticks < MAX_CATCH_UP_TICKS) {
+                gameState.update();
+                accumulator -= TICK_NANOS;
+                ticks++;
+            }
+            if (ticks == MAX_CATCH_UP_TICKS) {
+                accumulator = Math.min(accumulator, TICK_NANOS);
+            }
+
+            if (changed || ticks > 0) {
+                snapshot = GameSnapshot.capture(gameState, snapshot);
+                onPublish.run();
+            }
+            if (snapshot.isFinished()) {
+                running = false;
+                break;
+            }
+
+            LockSupport.parkNanos(TICK_NANOS - accumulator);
+            if (Thread.interrupted()) {
+                break;
+            }
+        }
+        // Apply anything that arrived while stopping, so the last snapshot reflects it
+        if (drainCommands()) {
+            snapshot = GameSnapshot.capture(gameState, snapshot);
+            onPublish.run();
+        }
+    }
+
+    private boolean drainCommands() {
+        boolean any = false;
+        Consumer<GameState> command;
+        while ((command = commands.poll()) != null) {
+            command.accept(gameState);
+            any = true;
+        }
+        return any;
+    }
+}
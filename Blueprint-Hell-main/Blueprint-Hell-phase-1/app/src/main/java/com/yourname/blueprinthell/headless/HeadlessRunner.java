@@ -0,0 +1,191 @@
+package com.yourname.blueprinthell.headless;
+
+import com.yourname.blueprinthell.instrument.TickProfiler;
+import com.yourname.blueprinthell.level.Levels;
+import com.yourname.blueprinthell.model.GameState;
+import com.yourname.blueprinthell.replay.Replay;
+import com.yourname.blueprinthell.replay.ReplayPlayer;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Plays wiring plans against a level without Swing, running update() as fast as it will go.
+ * Prints one CSV line per plan so thousands of layouts can be compared on a machine with no display.
+ * <pre>
+ * HeadlessRunner [--level name] [--max-ticks n] [--profile out.csv|out.json] [--per-tick] plan-or-directory...
+ * HeadlessRunner [--max-ticks n] [--profile out.csv|out.json] --replay file...
+ * </pre>
+ * Idle stretches are skipped (see GameState.runUntil()); --per-tick runs every tick instead, which
+ * gives the same results and is what --profile usually wants. With --profile, the phase timings of
+ * all runs are gathered into one TickProfiler and written out at the end.
+ * A replay is re-run on the level it was recorded on and reproduces the recorded session exactly.
+ */
+public final class HeadlessRunner {
+    public static final long DEFAULT_MAX_TICKS = 60L * 60 * 10; // Ten minutes of game time
+
+    public static final class Result {
+        private final String name;
+        private final GameState.GameStatus status;
+        private final long ticks;
+        private final long nanos;
+        private final int delivered;
+        private final int lost;
+        private final int coins;
+
+        Result(String name, GameState state, long nanos) {
+            this.name = name;
+            this.status = state.getCurrentStatus();
+            this.ticks = state.getTick();
+            this.nanos = nanos;
+            this.delivered = state.getPacketsDelivered();
+            this.lost = state.getPacketLoss();
+            this.coins = state.getCoins();
+        }
+
+        public String getName() { return name; }
+        public GameState.GameStatus getStatus() { return status; }
+        public long getTicks() { return ticks; }
+        public long getNanos() { return nanos; }
+        public int getDelivered() { return delivered; }
+        public int getLost() { return lost; }
+        public int getCoins() { return coins; }
+
+        /** Ticks the plan needed to win, or -1 if it did not win. */
+        public long getTicksToWin() {
+            return status == GameState.GameStatus.WIN ? ticks : -1;
+        }
+
+        public double getTicksPerSecond() {
+            return nanos == 0 ? 0 : ticks * 1e9 / nanos;
+        }
+
+        public String toCsv() {
+            return String.format(Locale.ROOT, "%s,%s,%d,%.0f,%d,%d,%d",
+                    name, status, ticks, getTicksPerSecond(), delivered, lost, coins);
+        }
+    }
+
+    public static final String CSV_HEADER = "plan,status,ticks,ticks_per_sec,delivered,lost,coins";
+
+    private HeadlessRunner() { }
+
+    /** Runs the plan on the given state until the game ends or maxTicks updates have run. */
+    public static Result run(GameState state, WiringPlan plan, long maxTicks) {
+        return run(state, plan, maxTicks, true);
+    }
+
+    /**
+     * As run(), optionally calling update() for every tick instead of letting GameState.runUntil()
+     * jump over idle ones. Both give the same result; per-tick is only useful for profiling.
+     */
+    public static Result run(GameState state, WiringPlan plan, long maxTicks, boolean skipIdle) {
+        List<WiringPlan.Step> steps = plan.getSteps();
+        int next = 0;
+        long start = System.nanoTime();
+        while (state.getCurrentStatus() == GameState.GameStatus.RUNNING && state.getTick() < maxTicks) {
+            while (next < steps.size() && steps.get(next).getTick() <= state.getTick()) {
+                steps.get(next++).apply(state);
+            }
+            if (skipIdle) {
+                // Up to the next wire of the plan, which always lies in the future here
+                state.runUntil(next < steps.size() ? Math.min(steps.get(next).getTick(), maxTicks) : maxTicks);
+            } else {
+                state.update();
+            }
+        }
+        return new Result(plan.getName(), state, System.nanoTime() - start);
+    }
+
+    /** Re-runs a recorded session on a fresh copy of its level. */
+    public static Result replay(Path file, long maxTicks, TickProfiler profiler) throws IOException {
+        Replay replay = Replay.read(file);
+        GameState state = Levels.create(replay.getLevel());
+        state.setProfiler(profiler);
+        long start = System.nanoTime();
+        ReplayPlayer.play(state, replay, maxTicks);
+        return new Result(file.getFileName().toString(), state, System.nanoTime() - start);
+    }
+
+    public static void main(String[] args) {
+        String level = Levels.DEFAULT;
+        long maxTicks = DEFAULT_MAX_TICKS;
+        List<Path> plans = new ArrayList<>();
+        List<Path> replays = new ArrayList<>();
+        Path profileFile = null;
+        boolean skipIdle = true;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--level" -> level = args[++i];
+                    case "--max-ticks" -> maxTicks = Long.parseLong(args[++i]);
+                    case "--replay" -> replays.add(Paths.get(args[++i]));
+                    case "--profile" -> profileFile = Paths.get(args[++i]);
+                    case "--per-tick" -> skipIdle = false;
+                    default -> collectPlans(Paths.get(args[i]), plans);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException | IOException e) {
+            System.err.println("Bad arguments: " + e.getMessage());
+            plans.clear();
+            replays.clear();
+        }
+        if (plans.isEmpty() && replays.isEmpty()) {
+            System.err.println("Usage: HeadlessRunner [--level name] [--max-ticks n] [--profile file] [--per-tick] plan-or-directory...");
+            System.err.println("       HeadlessRunner [--max-ticks n] [--profile file] --replay file...");
+            System.exit(2);
+        }
+
+        TickProfiler profiler = profileFile != null ? new TickProfiler() : null;
+        boolean failed = false;
+        System.out.println(CSV_HEADER);
+        for (Path file : plans) {
+            try {
+                WiringPlan plan = WiringPlan.load(file);
+                GameState state = Levels.create(level);
+                state.setProfiler(profiler);
+                System.out.println(run(state, plan, maxTicks, skipIdle).toCsv());
+            } catch (IOException | RuntimeException e) {
+                System.err.println(file + ": " + e.getMessage());
+                failed = true;
+            }
+        }
+        for (Path file : replays) {
+            try {
+                System.out.println(replay(file, maxTicks, profiler).toCsv());
+            } catch (IOException | RuntimeException e) {
+                System.err.println(file + ": " + e.getMessage());
+                failed = true;
+            }
+        }
+        if (profiler != null) {
+            try (Writer out = Files.newBufferedWriter(profileFile)) {
+                if (profileFile.toString().endsWith(".json")) {
+                    profiler.writeJson(out);
+                } else {
+                    profiler.writeCsv(out);
+                }
+            } catch (IOException e) {
+                System.err.println(profileFile + ": " + e.getMessage());
+                failed = true;
+            }
+        }
+        System.exit(failed ? 1 : 0);
+    }
+
+    static void collectPlans(Path path, List<Path> plans) throws IOException {
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> files = Files.list(path)) {
+                files.filter(p -> p.toString().endsWith(".plan")).sorted().forEach(plans::add);
+            }
+        } else {
+            plans.add(path);
+        }
+    }
+}
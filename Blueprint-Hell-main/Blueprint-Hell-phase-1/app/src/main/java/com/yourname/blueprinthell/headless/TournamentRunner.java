@@ -0,0 +1,134 @@
+package com.yourname.blueprinthell.headless;
+
+import com.yourname.blueprinthell.level.Levels;
+import com.yourname.blueprinthell.model.GameState;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays many wiring plans against the same level at once, one fork-join task per plan, and ranks
+ * them. Every task builds its own GameState from the level and nothing mutable is shared between
+ * tasks, so the boards need no locking and the results are the same as running them one by one.
+ * <pre>
+ * TournamentRunner [--level name] [--max-ticks n] [--threads n] plan-or-directory...
+ * </pre>
+ */
+public final class TournamentRunner {
+
+    // Winners first, fastest win first; then most delivered, then fewest lost
+    private static final Comparator<HeadlessRunner.Result> RANKING = Comparator
+            .comparing((HeadlessRunner.Result r) -> r.getStatus() != GameState.GameStatus.WIN)
+            .thenComparingLong(HeadlessRunner.Result::getTicksToWin)
+            .thenComparing(Comparator.comparingInt(HeadlessRunner.Result::getDelivered).reversed())
+            .thenComparingInt(HeadlessRunner.Result::getLost);
+
+    private TournamentRunner() { }
+
+    private static final class Match extends RecursiveTask<HeadlessRunner.Result> {
+        private final String level;
+        private final WiringPlan plan;
+        private final long maxTicks;
+
+        Match(String level, WiringPlan plan, long maxTicks) {
+            this.level = level;
+            this.plan = plan;
+            this.maxTicks = maxTicks;
+        }
+
+        @Override
+        protected HeadlessRunner.Result compute() {
+            // The state is created, run and dropped on this task's thread; only the Result escapes
+            return HeadlessRunner.run(Levels.create(level), plan, maxTicks);
+        }
+    }
+
+    /** Runs every plan on its own board in the pool and returns the results in plan order. */
+    public static List<HeadlessRunner.Result> run(String level, List<WiringPlan> plans, long maxTicks, ForkJoinPool pool) {
+        List<Match> matches = new ArrayList<>(plans.size());
+        for (WiringPlan plan : plans) {
+            matches.add(new Match(level, plan, maxTicks));
+        }
+        return pool.invoke(new RecursiveTask<List<HeadlessRunner.Result>>() {
+            @Override
+            protected List<HeadlessRunner.Result> compute() {
+                ForkJoinTask.invokeAll(matches);
+                List<HeadlessRunner.Result> results = new ArrayList<>(matches.size());
+                for (Match match : matches) {
+                    results.add(match.join());
+                }
+                return results;
+            }
+        });
+    }
+
+    /** The results sorted best first. */
+    public static List<HeadlessRunner.Result> rank(List<HeadlessRunner.Result> results) {
+        List<HeadlessRunner.Result> ranked = new ArrayList<>(results);
+        ranked.sort(RANKING);
+        return ranked;
+    }
+
+    public static void main(String[] args) {
+        String level = Levels.DEFAULT;
+        long maxTicks = HeadlessRunner.DEFAULT_MAX_TICKS;
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<Path> files = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--level" -> level = args[++i];
+                    case "--max-ticks" -> maxTicks = Long.parseLong(args[++i]);
+                    case "--threads" -> threads = Integer.parseInt(args[++i]);
+                    default -> HeadlessRunner.collectPlans(Paths.get(args[i]), files);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException | IOException e) {
+            System.err.println("Bad arguments: " + e.getMessage());
+            files.clear();
+        }
+        if (files.isEmpty() || threads < 1) {
+            System.err.println("Usage: TournamentRunner [--level name] [--max-ticks n] [--threads n] plan-or-directory...");
+            System.exit(2);
+        }
+
+        List<WiringPlan> plans = new ArrayList<>(files.size());
+        for (Path file : files) {
+            try {
+                plans.add(WiringPlan.load(file));
+            } catch (IOException e) {
+                System.err.println(file + ": " + e.getMessage());
+                System.exit(1);
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        List<HeadlessRunner.Result> results;
+        try {
+            results = run(level, plans, maxTicks, pool);
+        } catch (RuntimeException e) {
+            System.err.println("Tournament failed: " + e.getMessage());
+            System.exit(1);
+            return;
+        } finally {
+            pool.shutdown();
+        }
+        long nanos = System.nanoTime() - start;
+
+        System.out.println("rank,plan,status,ticks_to_win,delivered,lost,coins");
+        int rank = 1;
+        for (HeadlessRunner.Result r : rank(results)) {
+            System.out.printf(Locale.ROOT, "%d,%s,%s,%d,%d,%d,%d%n", rank++, r.getName(), r.getStatus(),
+                    r.getTicksToWin(), r.getDelivered(), r.getLost(), r.getCoins());
+        }
+        System.err.printf(Locale.ROOT, "%d plans on %d threads in %.1f s%n", plans.size(), threads, nanos / 1e9);
+    }
+}
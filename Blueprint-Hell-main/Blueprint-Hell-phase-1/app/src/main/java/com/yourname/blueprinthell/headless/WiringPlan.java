@@ -0,0 +1,116 @@
+package com.yourname.blueprinthell.headless;
+
+import com.yourname.blueprinthell.model.GameState;
+import com.yourname.blueprinthell.model.SystemNode;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A scripted list of wires to lay on a level, one per line:
+ * <pre>
+ * # wire &lt;system&gt;.&lt;output port&gt; &lt;system&gt;.&lt;input port&gt; [at &lt;tick&gt;]
+ * wire 0.0 1.0
+ * wire 1.1 3.0 at 120
+ * </pre>
+ * Systems and ports are numbered in the order the level creates them. Wires without a tick
+ * are laid before the first update.
+ */
+public final class WiringPlan {
+
+    public static final class Step {
+        private final long tick;
+        private final int fromSystem;
+        private final int outputPort;
+        private final int toSystem;
+        private final int inputPort;
+
+        Step(long tick, int fromSystem, int outputPort, int toSystem, int inputPort) {
+            this.tick = tick;
+            this.fromSystem = fromSystem;
+            this.outputPort = outputPort;
+            this.toSystem = toSystem;
+            this.inputPort = inputPort;
+        }
+
+        public long getTick() { return tick; }
+
+        /** Lays this wire on the given state. Returns false if the wire budget ran out. */
+        public boolean apply(GameState state) {
+            List<SystemNode> systems = state.getSystems();
+            if (fromSystem >= systems.size() || toSystem >= systems.size()) {
+                throw new IllegalStateException("Plan refers to system " + Math.max(fromSystem, toSystem)
+                        + " but the level has only " + systems.size());
+            }
+            SystemNode from = systems.get(fromSystem);
+            SystemNode to = systems.get(toSystem);
+            if (outputPort >= from.getOutputPorts().size() || inputPort >= to.getInputPorts().size()) {
+                throw new IllegalStateException("Plan refers to a port the level does not have");
+            }
+            return state.connect(from.getOutputPorts().get(outputPort), to.getInputPorts().get(inputPort), to);
+        }
+    }
+
+    private final String name;
+    private final List<Step> steps;
+
+    private WiringPlan(String name, List<Step> steps) {
+        this.name = name;
+        this.steps = Collections.unmodifiableList(steps);
+    }
+
+    public String getName() { return name; }
+
+    /** The steps ordered by tick; steps on the same tick keep their file order. */
+    public List<Step> getSteps() { return steps; }
+
+    public static WiringPlan load(Path file) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(file)) {
+            return parse(file.getFileName().toString(), in);
+        }
+    }
+
+    public static WiringPlan parse(String name, BufferedReader in) throws IOException {
+        List<Step> steps = new ArrayList<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("\\s+");
+            boolean hasTick = parts.length == 5 && parts[3].equals("at");
+            if (!parts[0].equals("wire") || (parts.length != 3 && !hasTick)) {
+                throw new IOException(name + ":" + lineNumber + ": expected 'wire <s>.<p> <s>.<p> [at <tick>]'");
+            }
+            try {
+                int[] from = parsePort(parts[1]);
+                int[] to = parsePort(parts[2]);
+                long tick = hasTick ? Long.parseLong(parts[4]) : 0;
+                steps.add(new Step(tick, from[0], from[1], to[0], to[1]));
+            } catch (NumberFormatException e) {
+                throw new IOException(name + ":" + lineNumber + ": " + e.getMessage());
+            }
+        }
+        steps.sort(Comparator.comparingLong(Step::getTick)); // List.sort is stable
+        return new WiringPlan(name, steps);
+    }
+
+    private static int[] parsePort(String token) {
+        int dot = token.indexOf('.');
+        if (dot < 0) {
+            throw new NumberFormatException("port '" + token + "' must look like <system>.<port>");
+        }
+        return new int[] {
+                Integer.parseUnsignedInt(token.substring(0, dot)),
+                Integer.parseUnsignedInt(token.substring(dot + 1))
+        };
+    }
+}
@@ -0,0 +1,560 @@
+package com.yourname.blueprinthell.instrument;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * How packets flow through the network over the last few seconds of play: how long they take
+ * from spawn to delivery, across a wire and waiting in a buffer, and per system and per wire how
+ * busy it is and how much it drops. Meant for finding the bottlenecks of a wiring layout.
+ * <p>
+ * The window is a ring of equal slices of ticks. When the newest slice is full, the oldest one
+ * is cleared and reused, so memory depends on the size of the board and never on how long the
+ * game runs. Systems, wires and packet slots are identified by the indexes GameState gives them.
+ * GameState only reports into a FlowStats when one is attached, and reporting never allocates
+ * once the arrays have grown to the board, apart from one small Summary per slice.
+ * <p>
+ * Like TickProfiler, one thread records and others may read at any time, seeing values that are
+ * at most slightly stale. Things already waiting or travelling when the stats were attached are
+ * counted from the first time they are seen. The getters add up every slice each time they are
+ * called; something that polls, like an overlay, should read getSummary() instead.
+ */
+public final class FlowStats {
+    public static final int DEFAULT_SLICE_TICKS = 120;
+    public static final int DEFAULT_SLICES = 10;
+    public static final int SUMMARY_SIZE = 3; // Systems and wires listed in a Summary
+
+    /**
+     * The window as it stood when the last slice was closed: totals, merged histograms, the
+     * systems that drop most and the busiest wires, worst first.
+     */
+    public static final class Summary {
+        private final long windowTicks;
+        private final int delivered;
+        private final int lost;
+        private final LatencyHistogram deliveryAge;
+        private final LatencyHistogram hopTime;
+        private final LatencyHistogram queueWait;
+        private final int[] systems;
+        private final double[] dropRate;
+        private final double[] meanOccupancy;
+        private final double[] meanWait;
+        private final int[] wires;
+        private final double[] utilization;
+        private final int[] carried;
+        private final int[] wireLost;
+
+        private Summary(FlowStats f) {
+            windowTicks = f.getWindowTicks();
+            delivered = f.getDelivered();
+            lost = f.getLost();
+            deliveryAge = f.getDeliveryAge();
+            hopTime = f.getHopTime();
+            queueWait = f.getQueueWait();
+
+            // Ranked by drop rate, then by how full the buffer is
+            int[] topSystems = new int[SUMMARY_SIZE];
+            double[] topRate = new double[SUMMARY_SIZE];
+            double[] topOccupancy = new double[SUMMARY_SIZE];
+            int found = 0;
+            for (int s = 0; s < f.systemCount; s++) {
+                double rate = f.getDropRate(s);
+                double occupancy = f.getMeanOccupancy(s);
+                if (rate == 0 && occupancy == 0) {
+                    continue;
+                }
+                int at = found;
+                while (at > 0 && (rate > topRate[at - 1] || (rate == topRate[at - 1] && occupancy > topOccupancy[at - 1]))) {
+                    at--;
+                }
+                if (at == SUMMARY_SIZE) {
+                    continue;
+                }
+                int end = Math.min(found, SUMMARY_SIZE - 1);
+                System.arraycopy(topSystems, at, topSystems, at + 1, end - at);
+                System.arraycopy(topRate, at, topRate, at + 1, end - at);
+                System.arraycopy(topOccupancy, at, topOccupancy, at + 1, end - at);
+                topSystems[at] = s;
+                topRate[at] = rate;
+                topOccupancy[at] = occupancy;
+                found = Math.min(found + 1, SUMMARY_SIZE);
+            }
+            systems = Arrays.copyOf(topSystems, found);
+            dropRate = Arrays.copyOf(topRate, found);
+            meanOccupancy = Arrays.copyOf(topOccupancy, found);
+            meanWait = new double[found];
+            for (int i = 0; i < found; i++) {
+                meanWait[i] = f.getMeanWait(systems[i]);
+            }
+
+            int[] topWires = new int[SUMMARY_SIZE];
+            double[] topUtilization = new double[SUMMARY_SIZE];
+            found = 0;
+            for (int w = 0; w < f.wireCount; w++) {
+                double busyShare = f.getUtilization(w);
+                if (busyShare == 0) {
+                    continue;
+                }
+                int at = found;
+                while (at > 0 && busyShare > topUtilization[at - 1]) {
+                    at--;
+                }
+                if (at == SUMMARY_SIZE) {
+                    continue;
+                }
+                int end = Math.min(found, SUMMARY_SIZE - 1);
+                System.arraycopy(topWires, at, topWires, at + 1, end - at);
+                System.arraycopy(topUtilization, at, topUtilization, at + 1, end - at);
+                topWires[at] = w;
+                topUtilization[at] = busyShare;
+                found = Math.min(found + 1, SUMMARY_SIZE);
+            }
+            wires = Arrays.copyOf(topWires, found);
+            utilization = Arrays.copyOf(topUtilization, found);
+            carried = new int[found];
+            wireLost = new int[found];
+            for (int i = 0; i < found; i++) {
+                carried[i] = f.getCarried(wires[i]);
+                wireLost[i] = f.getWireLost(wires[i]);
+            }
+        }
+
+        public long getWindowTicks() { return windowTicks; }
+        public int getDelivered() { return delivered; }
+        public int getLost() { return lost; }
+        public LatencyHistogram getDeliveryAge() { return deliveryAge; }
+        public LatencyHistogram getHopTime() { return hopTime; }
+        public LatencyHistogram getQueueWait() { return queueWait; }
+
+        /** How many systems are listed; the i-th one is system getSystem(i). */
+        public int getSystemCount() { return systems.length; }
+        public int getSystem(int i) { return systems[i]; }
+        public double getDropRate(int i) { return dropRate[i]; }
+        public double getMeanOccupancy(int i) { return meanOccupancy[i]; }
+        public double getMeanWait(int i) { return meanWait[i]; }
+
+        /** How many wires are listed; the i-th one is wire getWire(i). */
+        public int getWireCount() { return wires.length; }
+        public int getWire(int i) { return wires[i]; }
+        public double getUtilization(int i) { return utilization[i]; }
+        public int getCarried(int i) { return carried[i]; }
+        public int getWireLost(int i) { return wireLost[i]; }
+    }
+    private static final long UNKNOWN = -1;
+
+    private final int sliceTicks;
+    private final int slices;
+    private int current = 0;            // Slice being filled
+    private long sliceStart = 0;        // First tick of that slice
+    private long firstTick = UNKNOWN;   // First tick anything was reported at
+    private volatile long lastTick = 0;
+    private volatile Summary summary; // Null until the first slice is closed
+
+    // Whole network, one per slice
+    private final LatencyHistogram[] deliveryAge; // Ticks from spawn to each delivery into a system
+    private final LatencyHistogram[] hopTime;     // Ticks to cross one wire
+    private final LatencyHistogram[] queueWait;   // Ticks spent in a buffer before being sent on
+    private final int[] delivered;
+    private final int[] lost;
+
+    // Per system, [slice][system]
+    private int systemCount = 0;
+    private int[][] accepted;
+    private int[][] dropped;
+    private int[][] released;
+    private int[][] waited;      // Releases whose wait is known
+    private long[][] waitTotal;
+    private long[][] occupancy;  // Sum over ticks of the buffer level
+    private int[] level = new int[0];
+    private long[] levelSince = new long[0];
+
+    // Per wire, [slice][wire]
+    private int wireCount = 0;
+    private long[][] busy;       // Ticks spent carrying a packet
+    private int[][] carried;
+    private int[][] wireLost;
+    private long[] busySince = new long[0];
+
+    // Per packet slot
+    private long[] spawnTick = new long[0];
+    private long[] stageSince = new long[0]; // When the packet entered its current wire or buffer
+
+    public FlowStats() {
+        this(DEFAULT_SLICE_TICKS, DEFAULT_SLICES);
+    }
+
+    public FlowStats(int sliceTicks, int slices) {
+        if (sliceTicks < 1 || slices < 1) {
+            throw new IllegalArgumentException("Need at least one slice of at least one tick");
+        }
+        this.sliceTicks = sliceTicks;
+        this.slices = slices;
+        deliveryAge = new LatencyHistogram[slices];
+        hopTime = new LatencyHistogram[slices];
+        queueWait = new LatencyHistogram[slices];
+        for (int i = 0; i < slices; i++) {
+            deliveryAge[i] = new LatencyHistogram();
+            hopTime[i] = new LatencyHistogram();
+            queueWait[i] = new LatencyHistogram();
+        }
+        delivered = new int[slices];
+        lost = new int[slices];
+        accepted = new int[slices][0];
+        dropped = new int[slices][0];
+        released = new int[slices][0];
+        waited = new int[slices][0];
+        waitTotal = new long[slices][0];
+        occupancy = new long[slices][0];
+        busy = new long[slices][0];
+        carried = new int[slices][0];
+        wireLost = new int[slices][0];
+    }
+
+    // --- Reporting, from the simulation thread ---
+
+    /** A new packet appeared, on a wire, in a buffer or flying loose. */
+    public void spawned(int slot, long tick) {
+        advanceTo(tick);
+        ensureSlot(slot);
+        spawnTick[slot] = tick;
+        stageSince[slot] = tick;
+    }
+
+    /** The packet started down the wire. */
+    public void enteredWire(int slot, int wire, long tick) {
+        advanceTo(tick);
+        ensureSlot(slot);
+        ensureWire(wire);
+        stageSince[slot] = tick;
+        busySince[wire] = tick;
+    }
+
+    /** The packet reached the end of the wire, or was lost on it. */
+    public void leftWire(int slot, int wire, boolean arrived, long tick) {
+        advanceTo(tick);
+        ensureSlot(slot);
+        ensureWire(wire);
+        if (busySince[wire] != UNKNOWN) {
+            busy[current][wire] += tick - busySince[wire];
+            busySince[wire] = UNKNOWN;
+        }
+        if (!arrived) {
+            wireLost[current][wire]++;
+            return;
+        }
+        carried[current][wire]++;
+        if (stageSince[slot] != UNKNOWN) {
+            hopTime[current].record(tick - stageSince[slot]);
+        }
+    }
+
+    /** The system took the packet into its buffer, which now holds bufferLevel packets. */
+    public void stored(int slot, int system, int bufferLevel, long tick) {
+        advanceTo(tick);
+        ensureSlot(slot);
+        ensureSystem(system);
+        levelChanged(system, bufferLevel, tick);
+        accepted[current][system]++;
+        stageSince[slot] = tick;
+    }
+
+    /** The system sent the packet on from its buffer, which now holds bufferLevel packets. */
+    public void released(int slot, int system, int bufferLevel, long tick) {
+        advanceTo(tick);
+        ensureSlot(slot);
+        ensureSystem(system);
+        levelChanged(system, bufferLevel, tick);
+        released[current][system]++;
+        if (stageSince[slot] != UNKNOWN) {
+            long wait = tick - stageSince[slot];
+            queueWait[current].record(wait);
+            waited[current][system]++;
+            waitTotal[current][system] += wait;
+        }
+    }
+
+    /** The system had no room for the packet; system is -1 for a wire that leads nowhere. */
+    public void dropped(int slot, int system, long tick) {
+        advanceTo(tick);
+        if (system >= 0) {
+            ensureSystem(system);
+            dropped[current][system]++;
+        }
+    }
+
+    /** The packet was delivered into a system; counted as GameMetrics counts deliveries. */
+    public void delivered(int slot, long tick) {
+        advanceTo(tick);
+        ensureSlot(slot);
+        delivered[current]++;
+        if (spawnTick[slot] != UNKNOWN) {
+            deliveryAge[current].record(tick - spawnTick[slot]);
+        }
+    }
+
+    /** The packet is gone and its slot may be reused; counted as GameMetrics counts losses. */
+    public void lost(int slot, long tick) {
+        advanceTo(tick);
+        ensureSlot(slot);
+        lost[current]++;
+        spawnTick[slot] = UNKNOWN;
+        stageSince[slot] = UNKNOWN;
+    }
+
+    /** Moves the window on to the tick; called every tick and after idle ticks are skipped. */
+    public void advanceTo(long tick) {
+        if (firstTick == UNKNOWN) {
+            firstTick = tick;
+            sliceStart = tick - Math.floorMod(tick, sliceTicks);
+        }
+        boolean rotated = tick >= sliceStart + sliceTicks;
+        if (rotated) {
+            long elapsed = (tick - sliceStart) / sliceTicks;
+            if (elapsed > slices) {
+                // Nothing happened for longer than the window: only the last slices need closing,
+                // the rest would be cleared before anyone could see them
+                sliceStart += (elapsed - slices) * sliceTicks;
+            }
+            while (tick >= sliceStart + sliceTicks) {
+                closeSlice(sliceStart + sliceTicks);
+                current = (current + 1) % slices;
+                clearSlice(current);
+                sliceStart += sliceTicks;
+            }
+        }
+        if (tick > lastTick) {
+            lastTick = tick;
+        }
+        if (rotated) {
+            summary = new Summary(this);
+        }
+    }
+
+    private void levelChanged(int system, int newLevel, long tick) {
+        if (levelSince[system] != UNKNOWN) {
+            occupancy[current][system] += level[system] * (tick - levelSince[system]);
+        }
+        level[system] = newLevel;
+        levelSince[system] = tick;
+    }
+
+    // Books what is still waiting or travelling against the slice that ends at the boundary
+    private void closeSlice(long boundary) {
+        for (int s = 0; s < systemCount; s++) {
+            if (levelSince[s] != UNKNOWN) {
+                occupancy[current][s] += level[s] * (boundary - levelSince[s]);
+                levelSince[s] = boundary;
+            }
+        }
+        for (int w = 0; w < wireCount; w++) {
+            if (busySince[w] != UNKNOWN) {
+                busy[current][w] += boundary - busySince[w];
+                busySince[w] = boundary;
+            }
+        }
+    }
+
+    private void clearSlice(int slice) {
+        deliveryAge[slice].reset();
+        hopTime[slice].reset();
+        queueWait[slice].reset();
+        delivered[slice] = 0;
+        lost[slice] = 0;
+        Arrays.fill(accepted[slice], 0);
+        Arrays.fill(dropped[slice], 0);
+        Arrays.fill(released[slice], 0);
+        Arrays.fill(waited[slice], 0);
+        Arrays.fill(carried[slice], 0);
+        Arrays.fill(wireLost[slice], 0);
+        Arrays.fill(waitTotal[slice], 0);
+        Arrays.fill(occupancy[slice], 0);
+        Arrays.fill(busy[slice], 0);
+    }
+
+    private void ensureSlot(int slot) {
+        if (slot >= spawnTick.length) {
+            int capacity = Math.max(Math.max(16, slot + 1), spawnTick.length * 2);
+            spawnTick = grow(spawnTick, capacity);
+            stageSince = grow(stageSince, capacity);
+        }
+    }
+
+    private void ensureSystem(int system) {
+        if (system >= level.length) {
+            int capacity = Math.max(Math.max(16, system + 1), level.length * 2);
+            for (int i = 0; i < slices; i++) {
+                accepted[i] = Arrays.copyOf(accepted[i], capacity);
+                dropped[i] = Arrays.copyOf(dropped[i], capacity);
+                released[i] = Arrays.copyOf(released[i], capacity);
+                waited[i] = Arrays.copyOf(waited[i], capacity);
+                waitTotal[i] = Arrays.copyOf(waitTotal[i], capacity);
+                occupancy[i] = Arrays.copyOf(occupancy[i], capacity);
+            }
+            level = Arrays.copyOf(level, capacity);
+            levelSince = grow(levelSince, capacity);
+        }
+        systemCount = Math.max(systemCount, system + 1);
+    }
+
+    private void ensureWire(int wire) {
+        if (wire >= busySince.length) {
+            int capacity = Math.max(Math.max(16, wire + 1), busySince.length * 2);
+            for (int i = 0; i < slices; i++) {
+                busy[i] = Arrays.copyOf(busy[i], capacity);
+                carried[i] = Arrays.copyOf(carried[i], capacity);
+                wireLost[i] = Arrays.copyOf(wireLost[i], capacity);
+            }
+            busySince = grow(busySince, capacity);
+        }
+        wireCount = Math.max(wireCount, wire + 1);
+    }
+
+    // Copies into a longer array whose new entries are UNKNOWN
+    private static long[] grow(long[] array, int capacity) {
+        long[] grown = Arrays.copyOf(array, capacity);
+        Arrays.fill(grown, array.length, capacity, UNKNOWN);
+        return grown;
+    }
+
+    // --- Reading, from any thread ---
+
+    /** Ticks covered by the window so far: less than the full window early in a game. */
+    public long getWindowTicks() {
+        if (firstTick == UNKNOWN) {
+            return 0;
+        }
+        long now = lastTick;
+        return Math.min((long) (slices - 1) * sliceTicks + (now - sliceStart), now - firstTick);
+    }
+
+    /** Rebuilt each time a slice is closed, so reading it costs nothing; null before the first one. */
+    public Summary getSummary() { return summary; }
+
+    public int getDelivered() { return sum(delivered); }
+    public int getLost() { return sum(lost); }
+    public LatencyHistogram getDeliveryAge() { return merge(deliveryAge); }
+    public LatencyHistogram getHopTime() { return merge(hopTime); }
+    public LatencyHistogram getQueueWait() { return merge(queueWait); }
+
+    public int getSystemCount() { return systemCount; }
+    public int getAccepted(int system) { return sum(accepted, system); }
+    public int getDropped(int system) { return sum(dropped, system); }
+    public int getReleased(int system) { return sum(released, system); }
+
+    /** Dropped packets per packet offered to the system. */
+    public double getDropRate(int system) {
+        int drops = getDropped(system);
+        int offered = getAccepted(system) + drops;
+        return offered == 0 ? 0.0 : (double) drops / offered;
+    }
+
+    /** Average number of packets in the system's buffer over the window. */
+    public double getMeanOccupancy(int system) {
+        long ticks = getWindowTicks();
+        if (ticks == 0) {
+            return 0.0;
+        }
+        long total = sum(occupancy, system);
+        long[] since = levelSince;
+        int[] levels = level;
+        if (system < since.length && system < levels.length && since[system] != UNKNOWN) {
+            total += levels[system] * Math.max(0, lastTick - since[system]);
+        }
+        return (double) total / ticks;
+    }
+
+    /** Average ticks a packet waited in the system's buffer before being sent on. */
+    public double getMeanWait(int system) {
+        int count = sum(waited, system);
+        return count == 0 ? 0.0 : (double) sum(waitTotal, system) / count;
+    }
+
+    public int getWireCount() { return wireCount; }
+    public int getCarried(int wire) { return sum(carried, wire); }
+    public int getWireLost(int wire) { return sum(wireLost, wire); }
+
+    /** Share of the window the wire spent carrying a packet, from 0 to 1. */
+    public double getUtilization(int wire) {
+        long ticks = getWindowTicks();
+        if (ticks == 0) {
+            return 0.0;
+        }
+        long total = sum(busy, wire);
+        long[] since = busySince;
+        if (wire < since.length && since[wire] != UNKNOWN) {
+            total += Math.max(0, lastTick - since[wire]);
+        }
+        return Math.min(1.0, (double) total / ticks);
+    }
+
+    private static int sum(int[] perSlice) {
+        int total = 0;
+        for (int value : perSlice) {
+            total += value;
+        }
+        return total;
+    }
+
+    // Rows may be swapped for longer ones while this runs, so each is checked for length
+    private static int sum(int[][] perSlice, int index) {
+        int total = 0;
+        for (int[] row : perSlice) {
+            total += index < row.length ? row[index] : 0;
+        }
+        return total;
+    }
+
+    private static long sum(long[][] perSlice, int index) {
+        long total = 0;
+        for (long[] row : perSlice) {
+            total += index < row.length ? row[index] : 0;
+        }
+        return total;
+    }
+
+    private static LatencyHistogram merge(LatencyHistogram[] perSlice) {
+        LatencyHistogram merged = new LatencyHistogram();
+        for (LatencyHistogram h : perSlice) {
+            merged.add(h);
+        }
+        return merged;
+    }
+
+    public static final String CSV_HEADER =
+            "kind,index,accepted,dropped,released,drop_rate,mean_occupancy,mean_wait_ticks,utilization,carried,lost";
+
+    /**
+     * The window totals as comment lines, then one line per system and per wire that saw any
+     * traffic. Systems are numbered in level order and wires in the order they were laid.
+     */
+    public void writeCsv(Writer out) throws IOException {
+        out.write(String.format(Locale.ROOT, "# window_ticks=%d delivered=%d lost=%d%n",
+                getWindowTicks(), getDelivered(), getLost()));
+        writeSummary(out, "delivery_age", getDeliveryAge());
+        writeSummary(out, "hop_time", getHopTime());
+        writeSummary(out, "queue_wait", getQueueWait());
+        out.write(CSV_HEADER);
+        out.write('\n');
+        for (int s = 0; s < systemCount; s++) {
+            if (getAccepted(s) + getDropped(s) + getReleased(s) == 0 && getMeanOccupancy(s) == 0) {
+                continue;
+            }
+            out.write(String.format(Locale.ROOT, "system,%d,%d,%d,%d,%.4f,%.3f,%.1f,,,%n", s, getAccepted(s),
+                    getDropped(s), getReleased(s), getDropRate(s), getMeanOccupancy(s), getMeanWait(s)));
+        }
+        for (int w = 0; w < wireCount; w++) {
+            if (getCarried(w) + getWireLost(w) == 0 && getUtilization(w) == 0) {
+                continue;
+            }
+            out.write(String.format(Locale.ROOT, "wire,%d,,,,,,,%.4f,%d,%d%n", w, getUtilization(w),
+                    getCarried(w), getWireLost(w)));
+        }
+    }
+
+    private static void writeSummary(Writer out, String name, LatencyHistogram h) throws IOException {
+        out.write(String.format(Locale.ROOT, "# %s_ticks count=%d mean=%.1f p50=%d p90=%d p99=%d max=%d%n", name,
+                h.getCount(), h.getMean(), h.getPercentile(50), h.getPercentile(90), h.getPercentile(99), h.getMax()));
+    }
+}
@@ -0,0 +1,101 @@
+package com.yourname.blueprinthell.instrument;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size histogram of durations in the style of HdrHistogram: nanoseconds for TickProfiler,
+ * ticks for FlowStats. Buckets are exact below 32 and then split every power of two into 16
+ * linear steps, so any recorded value is off by at most about 6%. Recording is a few arithmetic
+ * operations on a preallocated array and never allocates.
+ * <p>
+ * One thread records; others may read at any time and see values that are at most slightly
+ * stale, which is all a debug overlay or a dump needs.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;      // Exact values below this
+    private static final int HALF = SUB_BUCKETS / 2;                  // Steps per power of two above it
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * HALF + HALF;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count = 0;
+    private long total = 0;
+    private long min = Long.MAX_VALUE;
+    private long max = 0;
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[indexOf(value)]++;
+        count++;
+        total += value;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /** Adds everything recorded in other to this histogram. */
+    void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        total += other.total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        total = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    public long getCount() { return count; }
+    public long getMin() { return count == 0 ? 0 : min; }
+    public long getMax() { return max; }
+
+    public double getMean() {
+        return count == 0 ? 0.0 : (double) total / count;
+    }
+
+    /** The smallest bucket value that at least the given percentage of recorded values fall under. */
+    public long getPercentile(double percent) {
+        long seen = count;
+        if (seen == 0) {
+            return 0;
+        }
+        long wanted = Math.max(1, (long) Math.ceil(percent / 100.0 * seen));
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulative += counts[i];
+            if (cumulative >= wanted) {
+                return Math.min(highestValueIn(i), max);
+            }
+        }
+        return max;
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return shift * HALF + (int) (value >>> shift);
+    }
+
+    static long highestValueIn(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / HALF - 1;
+        long lowest = (long) (index % HALF + HALF) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,12 @@
+package com.yourname.blueprinthell.instrument;
+
+/** The parts of a frame that TickProfiler times. */
+public enum Phase {
+    COLLISION,
+    MOVEMENT,
+    ARRIVAL,
+    REROUTE,
+    END_CHECK,
+    UPDATE,     // The whole of GameState.update(), including the phases above
+    PAINT       // GamePanel.paintComponent(), on the Swing thread
+}
@@ -0,0 +1,74 @@
+package com.yourname.blueprinthell.instrument;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Per-phase timings and board sizes of a running game.
+ * GameState only records into a profiler when one is attached, so a game without one pays a
+ * single null check per phase. The simulation phases are recorded by the simulation thread and
+ * PAINT by the Swing thread; each histogram has one writer.
+ */
+public final class TickProfiler {
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Phase.values().length];
+
+    // Board size at the end of the last recorded tick
+    private volatile int movingPackets;
+    private volatile int livePackets;
+    private volatile int wires;
+    private volatile int systems;
+
+    public TickProfiler() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    public void record(Phase phase, long nanos) {
+        histograms[phase.ordinal()].record(nanos);
+    }
+
+    public void recordCounts(int moving, int live, int wireCount, int systemCount) {
+        this.movingPackets = moving;
+        this.livePackets = live;
+        this.wires = wireCount;
+        this.systems = systemCount;
+    }
+
+    public LatencyHistogram getHistogram(Phase phase) { return histograms[phase.ordinal()]; }
+    public int getMovingPackets() { return movingPackets; }
+    public int getLivePackets() { return livePackets; }
+    public int getWires() { return wires; }
+    public int getSystems() { return systems; }
+
+    public static final String CSV_HEADER = "phase,count,mean_ns,p50_ns,p90_ns,p99_ns,max_ns";
+
+    /** One line per phase, then the board size as comment lines. */
+    public void writeCsv(Writer out) throws IOException {
+        out.write(CSV_HEADER);
+        out.write('\n');
+        for (Phase phase : Phase.values()) {
+            LatencyHistogram h = getHistogram(phase);
+            out.write(String.format(Locale.ROOT, "%s,%d,%.0f,%d,%d,%d,%d%n", phase, h.getCount(), h.getMean(),
+                    h.getPercentile(50), h.getPercentile(90), h.getPercentile(99), h.getMax()));
+        }
+        out.write(String.format(Locale.ROOT, "# moving_packets=%d live_packets=%d wires=%d systems=%d%n",
+                movingPackets, livePackets, wires, systems));
+    }
+
+    public void writeJson(Writer out) throws IOException {
+        out.write("{\n  \"phases\": {\n");
+        Phase[] phases = Phase.values();
+        for (int i = 0; i < phases.length; i++) {
+            LatencyHistogram h = getHistogram(phases[i]);
+            out.write(String.format(Locale.ROOT,
+                    "    \"%s\": {\"count\": %d, \"mean_ns\": %.0f, \"p50_ns\": %d, \"p90_ns\": %d, \"p99_ns\": %d, \"max_ns\": %d}%s%n",
+                    phases[i], h.getCount(), h.getMean(), h.getPercentile(50), h.getPercentile(90),
+                    h.getPercentile(99), h.getMax(), i + 1 < phases.length ? "," : ""));
+        }
+        out.write(String.format(Locale.ROOT,
+                "  },%n  \"counts\": {\"moving_packets\": %d, \"live_packets\": %d, \"wires\": %d, \"systems\": %d}%n}%n",
+                movingPackets, livePackets, wires, systems));
+    }
+}
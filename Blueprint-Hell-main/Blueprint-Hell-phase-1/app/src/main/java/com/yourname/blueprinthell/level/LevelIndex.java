@@ -0,0 +1,166 @@
+package com.yourname.blueprinthell.level;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Summary of every level file in a directory, for the levels menu.
+ * The summaries are cached in an index file next to the levels and a level is only scanned
+ * again when its size or modification time changes, so listing a directory of huge generated
+ * levels costs one stat per file. Scanning only counts lines; it never builds the level.
+ */
+public final class LevelIndex {
+    static final String INDEX_FILE = ".levels.idx";
+
+    /** One level as the menu shows it; the id is what Levels.create() takes. */
+    public static final class Entry {
+        private final String id;
+        private final String title;
+        private final double budget; // -1 for the GameState default
+        private final int systems;
+        private final int spawns;
+        private final long fileSize;
+        private final long modified;
+
+        Entry(String id, String title, double budget, int systems, int spawns, long fileSize, long modified) {
+            this.id = id;
+            this.title = title;
+            this.budget = budget;
+            this.systems = systems;
+            this.spawns = spawns;
+            this.fileSize = fileSize;
+            this.modified = modified;
+        }
+
+        public String getId() { return id; }
+        public String getTitle() { return title; }
+        public double getBudget() { return budget; }
+        public int getSystems() { return systems; }
+        public int getSpawns() { return spawns; }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s  (%d systems, %d spawns)", title, systems, spawns);
+        }
+
+        private String toLine() {
+            return String.join("\t", id, Long.toString(fileSize), Long.toString(modified),
+                    Double.toString(budget), Integer.toString(systems), Integer.toString(spawns), title);
+        }
+
+        private static Entry fromLine(String line) {
+            String[] f = line.split("\t", 7);
+            return new Entry(f[0], f[6], Double.parseDouble(f[3]), Integer.parseInt(f[4]), Integer.parseInt(f[5]),
+                    Long.parseLong(f[1]), Long.parseLong(f[2]));
+        }
+    }
+
+    private final List<Entry> entries;
+
+    private LevelIndex(List<Entry> entries) {
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    /** The levels sorted by id. */
+    public List<Entry> getEntries() { return entries; }
+
+    /**
+     * Lists the levels in the directory, rescanning only files that changed since the cached
+     * index was written, and rewrites the index if anything did. A missing directory has no levels.
+     */
+    public static LevelIndex load(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return new LevelIndex(new ArrayList<>());
+        }
+        Map<String, Entry> cached = readCache(directory.resolve(INDEX_FILE));
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(p -> p.getFileName().toString().endsWith(LevelLoader.EXTENSION)).sorted().toList();
+        }
+
+        List<Entry> entries = new ArrayList<>(files.size());
+        boolean changed = cached.size() != files.size();
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            String id = name.substring(0, name.length() - LevelLoader.EXTENSION.length());
+            long size = Files.size(file);
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            Entry entry = cached.get(id);
+            if (entry == null || entry.fileSize != size || entry.modified != modified) {
+                entry = scan(file, id, size, modified);
+                changed = true;
+            }
+            entries.add(entry);
+        }
+        if (changed) {
+            writeCache(directory.resolve(INDEX_FILE), entries);
+        }
+        return new LevelIndex(entries);
+    }
+
+    private static Entry scan(Path file, String id, long size, long modified) throws IOException {
+        String title = id;
+        double budget = -1;
+        int systems = 0;
+        int spawns = 0;
+        try (BufferedReader in = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.startsWith("system")) {
+                    systems++;
+                } else if (line.startsWith("spawn")) {
+                    spawns++;
+                } else if (line.startsWith("name ")) {
+                    int comment = line.indexOf('#');
+                    title = (comment < 0 ? line.substring(5) : line.substring(5, comment)).trim();
+                } else if (line.startsWith("budget ")) {
+                    try {
+                        budget = Double.parseDouble(line.substring(7).split("#")[0].trim());
+                    } catch (NumberFormatException e) {
+                        // Reported when the level is actually loaded
+                    }
+                }
+            }
+        }
+        return new Entry(id, title, budget, systems, spawns, size, modified);
+    }
+
+    private static Map<String, Entry> readCache(Path indexFile) {
+        Map<String, Entry> cached = new HashMap<>();
+        if (!Files.isRegularFile(indexFile)) {
+            return cached;
+        }
+        try (BufferedReader in = Files.newBufferedReader(indexFile)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                Entry entry = Entry.fromLine(line);
+                cached.put(entry.id, entry);
+            }
+        } catch (IOException | RuntimeException e) {
+            cached.clear(); // A damaged index is simply rebuilt
+        }
+        return cached;
+    }
+
+    private static void writeCache(Path indexFile, List<Entry> entries) {
+        try (BufferedWriter out = Files.newBufferedWriter(indexFile)) {
+            for (Entry entry : entries) {
+                out.write(entry.toLine());
+                out.newLine();
+            }
+        } catch (IOException e) {
+            // Read-only level directories still work, they are just scanned every time
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.yourname.blueprinthell.level;
+
+import com.yourname.blueprinthell.model.GameState;
+import com.yourname.blueprinthell.model.Packet;
+import com.yourname.blueprinthell.model.PortLayout;
+import com.yourname.blueprinthell.model.SystemNode;
+import java.awt.Point;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads a level file, one definition per line:
+ * <pre>
+ * name Crossroads
+ * budget 800                  # wire length; must come before the first system
+ * system 100 150              # x y [buffer &lt;capacity&gt;]
+ * system 400 150 buffer 8
+ * in -20 0                    # ports of the system above, as offsets from its centre;
+ * out 20 -10                  # a system without any keeps the default two-in, two-out layout
+ * out 20 10
+ * spawn 60 0 square 10        # tick system [square|triangle] [size]
+ * </pre>
+ * The file is read line by line and systems are added as they are read. Port Points are not
+ * created until the game asks for them, and identical layouts are shared, so generated levels
+ * with tens of thousands of systems load quickly.
+ */
+public final class LevelLoader {
+    public static final String EXTENSION = ".level";
+    private static final int DEFAULT_SPAWN_SIZE = 10;
+
+    private LevelLoader() { }
+
+    public static GameState load(Path file) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(file)) {
+            return parse(file.getFileName().toString(), in);
+        }
+    }
+
+    public static GameState parse(String name, BufferedReader in) throws IOException {
+        Parser parser = new Parser(name);
+        String line;
+        while ((line = in.readLine()) != null) {
+            parser.line(line);
+        }
+        return parser.finish();
+    }
+
+    // Holds back the last system until its port lines (if any) have been read
+    private static final class Parser {
+        private final String name;
+        private final Map<PortLayout, PortLayout> layouts = new HashMap<>();
+        private final List<SystemNode> systems = new ArrayList<>();
+        private final List<long[]> spawns = new ArrayList<>(); // tick, system, shape, size
+        private GameState state;
+        private double budget = -1;
+        private int lineNumber = 0;
+
+        private Point pendingLocation;
+        private int pendingCapacity;
+        private final List<Integer> pendingInputs = new ArrayList<>();
+        private final List<Integer> pendingOutputs = new ArrayList<>();
+
+        Parser(String name) {
+            this.name = name;
+        }
+
+        void line(String line) throws IOException {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            line = line.trim();
+            if (line.isEmpty()) {
+                return;
+            }
+            String[] parts = split(line);
+            try {
+                switch (parts[0]) {
+                    case "name" -> expect(parts.length >= 2, "name <title>");
+                    case "budget" -> {
+                        expect(parts.length == 2, "budget <wire length>");
+                        if (state != null || pendingLocation != null) {
+                            throw new IOException(name + ":" + lineNumber + ": budget must come before the first system");
+                        }
+                        budget = Double.parseDouble(parts[1]);
+                    }
+                    case "system" -> {
+                        boolean hasBuffer = parts.length == 5 && parts[3].equals("buffer");
+                        expect(parts.length == 3 || hasBuffer, "system <x> <y> [buffer <capacity>]");
+                        flushSystem();
+                        pendingLocation = new Point(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+                        pendingCapacity = hasBuffer ? Integer.parseInt(parts[4]) : SystemNode.DEFAULT_BUFFER_CAPACITY;
+                        expect(pendingCapacity >= 1, "a buffer capacity of at least 1");
+                    }
+                    case "in", "out" -> {
+                        expect(parts.length == 3, parts[0] + " <dx> <dy>");
+                        if (pendingLocation == null) {
+                            throw new IOException(name + ":" + lineNumber + ": ports must follow a system");
+                        }
+                        List<Integer> ports = parts[0].equals("in") ? pendingInputs : pendingOutputs;
+                        ports.add(Integer.parseInt(parts[1]));
+                        ports.add(Integer.parseInt(parts[2]));
+                    }
+                    case "spawn" -> {
+                        expect(parts.length >= 3 && parts.length <= 5, "spawn <tick> <system> [square|triangle] [size]");
+                        Packet.Shape shape = parts.length >= 4
+                                ? Packet.Shape.valueOf(parts[3].toUpperCase(Locale.ROOT)) : Packet.Shape.SQUARE;
+                        int size = parts.length == 5 ? Integer.parseInt(parts[4]) : DEFAULT_SPAWN_SIZE;
+                        spawns.add(new long[] {
+                                Long.parseUnsignedLong(parts[1]), Integer.parseUnsignedInt(parts[2]), shape.ordinal(), size });
+                    }
+                    default -> throw new IOException(name + ":" + lineNumber + ": unknown definition '" + parts[0] + "'");
+                }
+            } catch (IllegalArgumentException e) { // Also covers NumberFormatException
+                throw new IOException(name + ":" + lineNumber + ": " + e.getMessage());
+            }
+        }
+
+        GameState finish() throws IOException {
+            flushSystem();
+            GameState result = state();
+            for (long[] spawn : spawns) {
+                if (spawn[1] >= systems.size()) {
+                    throw new IOException(name + ": spawn refers to system " + spawn[1]
+                            + " but the level has only " + systems.size());
+                }
+                result.scheduleSpawn(spawn[0], systems.get((int) spawn[1]),
+                        Packet.Shape.values()[(int) spawn[2]], (int) spawn[3]);
+            }
+            return result;
+        }
+
+        private void flushSystem() {
+            if (pendingLocation == null) {
+                return;
+            }
+            PortLayout layout = PortLayout.DEFAULT;
+            if (!pendingInputs.isEmpty() || !pendingOutputs.isEmpty()) {
+                layout = layouts.computeIfAbsent(new PortLayout(toArray(pendingInputs), toArray(pendingOutputs)), l -> l);
+            }
+            SystemNode node = new SystemNode(pendingLocation, pendingCapacity, layout);
+            systems.add(node);
+            state().addSystem(node);
+            pendingLocation = null;
+            pendingInputs.clear();
+            pendingOutputs.clear();
+        }
+
+        private GameState state() {
+            if (state == null) {
+                state = budget < 0 ? new GameState() : new GameState(budget);
+            }
+            return state;
+        }
+
+        private void expect(boolean condition, String message) throws IOException {
+            if (!condition) {
+                throw new IOException(name + ":" + lineNumber + ": expected " + message);
+            }
+        }
+
+        // Same as split("\\s+") on a trimmed line, without going through a regex for every line
+        private static String[] split(String line) {
+            int count = 0;
+            for (int i = 0; i < line.length(); i++) {
+                if (!Character.isWhitespace(line.charAt(i)) && (i == 0 || Character.isWhitespace(line.charAt(i - 1)))) {
+                    count++;
+                }
+            }
+            String[] parts = new String[count];
+            int part = 0;
+            int start = -1;
+            for (int i = 0; i <= line.length(); i++) {
+                boolean space = i == line.length() || Character.isWhitespace(line.charAt(i));
+                if (!space && start < 0) {
+                    start = i;
+                } else if (space && start >= 0) {
+                    parts[part++] = line.substring(start, i);
+                    start = -1;
+                }
+            }
+            return parts;
+        }
+
+        private static int[] toArray(List<Integer> values) {
+            int[] array = new int[values.size()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = values.get(i);
+            }
+            return array;
+        }
+    }
+}
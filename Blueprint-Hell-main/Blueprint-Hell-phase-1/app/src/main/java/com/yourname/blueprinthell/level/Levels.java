@@ -0,0 +1,56 @@
+package com.yourname.blueprinthell.level;
+
+import com.yourname.blueprinthell.model.GameState;
+import com.yourname.blueprinthell.model.SystemNode;
+import java.awt.Point;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Built-in levels and level files. Both the game window and the headless runner start from here,
+ * so they always simulate the same board.
+ */
+public final class Levels {
+    public static final String DEFAULT = "default";
+    // Where level files are looked up by id, e.g. -Dblueprinthell.levelDir=levels
+    public static final String LEVEL_DIR_PROPERTY = "blueprinthell.levelDir";
+
+    private Levels() { }
+
+    /** The four-system board the game has always started with. */
+    public static GameState createDefault() {
+        GameState gameState = new GameState();
+        gameState.addSystem(new SystemNode(new Point(100, 150)));
+        gameState.addSystem(new SystemNode(new Point(400, 150)));
+        gameState.addSystem(new SystemNode(new Point(100, 400)));
+        gameState.addSystem(new SystemNode(new Point(400, 400)));
+        return gameState;
+    }
+
+    public static Path getLevelDirectory() {
+        return Paths.get(System.getProperty(LEVEL_DIR_PROPERTY, "levels"));
+    }
+
+    /**
+     * Returns a fresh GameState for the named level: the built-in default, a level id from the
+     * level directory, or the path of a level file.
+     */
+    public static GameState create(String name) {
+        if (DEFAULT.equals(name)) {
+            return createDefault();
+        }
+        Path file = name.endsWith(LevelLoader.EXTENSION)
+                ? Paths.get(name) : getLevelDirectory().resolve(name + LevelLoader.EXTENSION);
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("Unknown level: " + name);
+        }
+        try {
+            return LevelLoader.load(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
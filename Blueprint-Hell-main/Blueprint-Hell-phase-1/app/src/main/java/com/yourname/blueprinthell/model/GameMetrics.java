@@ -0,0 +1,46 @@
+package com.yourname.blueprinthell.model;
+
+/**
+ * Running packet counters of one GameState, updated where packets are spawned, buffered,
+ * released, delivered and lost. Reading any of them is O(1), so the end-of-tick checks never
+ * have to walk the systems. The public methods form a read-only view of the counters.
+ */
+public final class GameMetrics {
+    private final PacketStore packets;
+
+    private int spawned = 0;
+    private int delivered = 0;
+    private int lost = 0;
+    private int buffered = 0;
+
+    GameMetrics(PacketStore packets) {
+        this.packets = packets;
+    }
+
+    void packetSpawned() { spawned++; }
+    void packetDelivered() { delivered++; }
+    void packetLost() { lost++; }
+    void bufferChanged(int change) { buffered += change; }
+
+    // Buffered is not restored: it is rebuilt as the saved buffers are refilled
+    void restore(int savedSpawned, int savedDelivered, int savedLost) {
+        spawned = savedSpawned;
+        delivered = savedDelivered;
+        lost = savedLost;
+    }
+
+    public int getSpawned() { return spawned; }
+    public int getDelivered() { return delivered; }
+    public int getLost() { return lost; }
+
+    /** Packets waiting in the buffers of all systems. */
+    public int getBuffered() { return buffered; }
+
+    /** Packets travelling on wires or flying loose. */
+    public int getInFlight() { return packets.getMovingCount(); }
+
+    /** Lost packets per spawned packet; 0 before anything has been spawned. */
+    public double getLossRatio() {
+        return spawned == 0 ? 0.0 : (double) lost / spawned;
+    }
+}
@@ -0,0 +1,113 @@
+package com.yourname.blueprinthell.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable copy of everything the view needs to draw one frame.
+ * Snapshots are captured by the simulation thread after a tick and can be read from any thread.
+ */
+public final class GameSnapshot {
+    /** Side of the world tiles that packets are filed under for repainting. */
+    public static final int TILE_SIZE = 64;
+
+    private final GameState.GameStatus status;
+    private final long tick;
+    private final int packetLoss;
+    private final int packetsDelivered;
+    private final int coins;
+    private final double remainingWireLength;
+
+    private final int topologyVersion;
+    private final List<SystemNode> systems;
+    private final List<Wire> wires;
+
+    private final int packetCount;
+    private final int[] packetX;
+    private final int[] packetY;
+    private final int[] packetSize;
+    private final Packet.Shape[] packetShape;
+    private final long[] packetTiles; // Every tile a packet overlaps, once each
+
+    private GameSnapshot(GameState state, List<SystemNode> systems, List<Wire> wires) {
+        this.status = state.getCurrentStatus();
+        this.tick = state.getTick();
+        this.packetLoss = state.getPacketLoss();
+        this.packetsDelivered = state.getPacketsDelivered();
+        this.coins = state.getCoins();
+        this.remainingWireLength = state.getRemainingWireLength();
+        this.topologyVersion = state.getTopologyVersion();
+        this.systems = systems;
+        this.wires = wires;
+
+        PacketStore packets = state.getPacketStore();
+        this.packetCount = packets.getMovingCount();
+        this.packetX = new int[packetCount];
+        this.packetY = new int[packetCount];
+        this.packetSize = new int[packetCount];
+        this.packetShape = new Packet.Shape[packetCount];
+        LongHashSet tiles = new LongHashSet();
+        for (int i = 0; i < packetCount; i++) {
+            int slot = packets.getMovingSlot(i);
+            packetX[i] = (int) Math.round(packets.getX(slot));
+            packetY[i] = (int) Math.round(packets.getY(slot));
+            packetSize[i] = packets.getSize(slot);
+            packetShape[i] = packets.getShape(slot);
+            int half = packetSize[i] / 2;
+            int maxTx = Math.floorDiv(packetX[i] + half, TILE_SIZE);
+            int maxTy = Math.floorDiv(packetY[i] + half, TILE_SIZE);
+            for (int tx = Math.floorDiv(packetX[i] - half, TILE_SIZE); tx <= maxTx; tx++) {
+                for (int ty = Math.floorDiv(packetY[i] - half, TILE_SIZE); ty <= maxTy; ty++) {
+                    tiles.add(tileKey(tx, ty));
+                }
+            }
+        }
+        this.packetTiles = new long[tiles.size()];
+        tiles.toArray(packetTiles);
+    }
+
+    // Flipping the top bit keeps tile (0, 0) from being the set's empty marker
+    private static long tileKey(int tx, int ty) {
+        return (((long) tx << 32) | (ty & 0xFFFFFFFFL)) ^ Long.MIN_VALUE;
+    }
+
+    /**
+     * Captures the current state. The system and wire lists are shared with the previous
+     * snapshot as long as the topology has not changed. The systems and wires in them are the
+     * live ones, so the view may only read what is final on them, or Wire.crossesSystem().
+     */
+    public static GameSnapshot capture(GameState state, GameSnapshot previous) {
+        if (previous != null && previous.topologyVersion == state.getTopologyVersion()) {
+            return new GameSnapshot(state, previous.systems, previous.wires);
+        }
+        return new GameSnapshot(state,
+                Collections.unmodifiableList(new ArrayList<>(state.getSystems())),
+                Collections.unmodifiableList(new ArrayList<>(state.getWires())));
+    }
+
+    public GameState.GameStatus getStatus() { return status; }
+    public long getTick() { return tick; }
+    public int getPacketLoss() { return packetLoss; }
+    public int getPacketsDelivered() { return packetsDelivered; }
+    public int getCoins() { return coins; }
+    public double getRemainingWireLength() { return remainingWireLength; }
+    public List<SystemNode> getSystems() { return systems; }
+    public List<Wire> getWires() { return wires; }
+    public int getTopologyVersion() { return topologyVersion; }
+
+    /** How many TILE_SIZE tiles have a packet in them; a packet on a tile edge counts for each tile it touches. */
+    public int getPacketTileCount() { return packetTiles.length; }
+    public int getPacketTileX(int i) { return (int) ((packetTiles[i] ^ Long.MIN_VALUE) >> 32); }
+    public int getPacketTileY(int i) { return (int) packetTiles[i]; }
+
+    public int getPacketCount() { return packetCount; }
+    public int getPacketX(int i) { return packetX[i]; }
+    public int getPacketY(int i) { return packetY[i]; }
+    public int getPacketSize(int i) { return packetSize[i]; }
+    public Packet.Shape getPacketShape(int i) { return packetShape[i]; }
+
+    public boolean isFinished() {
+        return status == GameState.GameStatus.GAME_OVER || status == GameState.GameStatus.WIN;
+    }
+}
@@ -1,28 +1,98 @@
 package com.yourname.blueprinthell.model;
 
+import com.yourname.blueprinthell.instrument.FlowStats;
+import com.yourname.blueprinthell.instrument.Phase;
+import com.yourname.blueprinthell.instrument.TickProfiler;
 import java.awt.Point;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * The whole simulation of one board.
+ * <p>
+ * A GameState is not thread-safe and is confined to one thread at a time: only the thread that
+ * owns it may call update() or anything that changes it. The game window hands it to
+ * SimulationLoop and talks to it only through submitted commands and published snapshots; the
+ * headless runners create, run and drop each state inside a single task. Different GameStates
+ * share nothing mutable (the model keeps no static state, and PortLayouts are immutable), so any
+ * number of them can run in parallel on different threads.
+ */
 public class GameState {
     public enum GameStatus { RUNNING, PAUSED, GAME_OVER, WIN }
     private GameStatus currentStatus = GameStatus.RUNNING;
 
-    private List<Packet> packets = new ArrayList<>();
+    // PAIRWISE tests every pair of packets and is kept as the reference for SPATIAL_HASH.
+    // SWEPT tests the packets' paths through the coming tick and adds noise once per contact,
+    // not once per tick of overlap, so fast packets can't tunnel and results don't depend on the tick rate
+    public enum CollisionMode { PAIRWISE, SPATIAL_HASH, SWEPT }
+    private CollisionMode collisionMode = CollisionMode.SPATIAL_HASH;
+    private final SpatialHashGrid collisionGrid = new SpatialHashGrid();
+    private final SweptCollider sweptCollider = new SweptCollider(collisionGrid);
+    private final IdleSkipper idleSkipper = new IdleSkipper(collisionGrid);
+    private int idleCheckBackoff = 1; // runUntil() ticks to wait before looking for idle time again
+    private int idleCheckIn = 0;
+
+    // PARALLEL steps the packets in fork-join chunks on boards with at least parallelThreshold
+    // moving packets; the outcome is identical to SERIAL
+    public enum MovementMode { SERIAL, PARALLEL }
+    private MovementMode movementMode = MovementMode.SERIAL;
+    private int parallelThreshold = ParallelMover.DEFAULT_THRESHOLD;
+    private final ParallelMover parallelMover = new ParallelMover();
+
+    // What addWire() does with a wire that runs through a system's body. FLAG lays it and marks
+    // it (see Wire.crossesSystem()), so boards, plans and replays from before the check still play
+    // the same; REJECT refuses it. Either way the check only looks at the cells along the wire
+    public enum CrossingRule { FLAG, REJECT }
+    private CrossingRule crossingRule = CrossingRule.FLAG;
+    private final WiringIndex wiringIndex = new WiringIndex();
+
+    // Wires whose packet reached the end during the current tick, in arrival order
+    private Wire[] arrivals = new Wire[16];
+    private int arrivalCount = 0;
+
+    private final PacketStore packets = new PacketStore();
     private List<SystemNode> systems = new ArrayList<>();
     private List<Wire> wires = new ArrayList<>();
     private Map<Wire, SystemNode> wireDestinations = new HashMap<>();
+    private Map<Point, List<SystemNode>> outputPortOwners = new HashMap<>(); // Adjacency index for re-routing
+    private int indexedSystems = 0; // Systems whose output ports are in outputPortOwners
 
-    private int packetLoss = 0;
-    private int packetsDelivered = 0;
-    private int totalPacketsSpawned = 0;
+    // Packets a level feeds into its systems, ordered by tick
+    static final class Spawn {
+        final long tick;
+        final SystemNode system;
+        final Packet.Shape shape;
+        final int size;
+
+        Spawn(long tick, SystemNode system, Packet.Shape shape, int size) {
+            this.tick = tick;
+            this.system = system;
+            this.shape = shape;
+            this.size = size;
+        }
+    }
+    private final List<Spawn> spawns = new ArrayList<>();
+    private int nextSpawn = 0;
+
+    private TickProfiler profiler; // Null unless someone is looking at the timings
+    private FlowStats flowStats; // Null unless someone is looking at the packet flow
+
+    private final GameMetrics metrics = new GameMetrics(packets);
+    private final ReadySystems readySystems = new ReadySystems(); // Systems reroutePackets() has to look at
     private int coins = 0;
     private double remainingWireLength = 500.0;
+    private long tick = 0; // Number of updates run while RUNNING
+    private int topologyVersion = 0; // Bumped whenever a system or wire is added
 
     public GameState() { }
+
+    /** Starts with a different wire budget, e.g. for generated boards. */
+    public GameState(double wireBudget) {
+        this.remainingWireLength = wireBudget;
+    }
     
     // --- The missing pause/resume methods ---
     public void pauseGame() {
@@ -37,57 +107,194 @@ public class GameState {
         }
     }
 
+    /**
+     * Lays the wire and charges its length. Returns false if there is not enough wire left, or if
+     * the wire runs through a system's body and the crossing rule is REJECT.
+     */
     public boolean addWire(Wire w, SystemNode dest) {
-        if (remainingWireLength >= w.getLength()) {
-            wires.add(w);
-            wireDestinations.put(w, dest);
-            remainingWireLength -= w.getLength();
-            return true;
+        if (remainingWireLength < w.getLength()) {
+            return false;
         }
-        return false;
+        if (crossingRule == CrossingRule.REJECT) {
+            indexOutputPorts();
+            if (wiringIndex.findCrossedSystem(w) != null) {
+                return false;
+            }
+        }
+        registerWire(w, dest);
+        remainingWireLength -= w.getLength();
+        return true;
+    }
+
+    // Links the wire into the board without charging for it; SaveFile uses this to rebuild a board
+    void registerWire(Wire w, SystemNode dest) {
+        indexOutputPorts();
+        if (wiringIndex.findCrossedSystem(w) != null) {
+            w.markCrossesSystem();
+        }
+        wiringIndex.addWire(w);
+        w.setIndex(wires.size());
+        wires.add(w);
+        wireDestinations.put(w, dest);
+        List<SystemNode> owners = outputPortOwners.get(w.getStart());
+        if (owners != null) {
+            for (SystemNode owner : owners) {
+                w.addSource(owner);
+            }
+        }
+        topologyVersion++;
+    }
+
+    SystemNode getDestination(Wire w) {
+        return wireDestinations.get(w);
+    }
+
+    // Puts back the scalar state of a saved game; the board itself is rebuilt by SaveFile
+    void restore(GameStatus status, long savedTick, int savedTopologyVersion, int savedCoins, double wireLeft) {
+        this.currentStatus = status;
+        this.tick = savedTick;
+        this.topologyVersion = savedTopologyVersion;
+        this.coins = savedCoins;
+        this.remainingWireLength = wireLeft;
+    }
+
+    /**
+     * Lays a wire from an output port to an input port of dest and sends a new packet down it.
+     * Returns false if addWire() refuses the wire.
+     */
+    public boolean connect(Point start, Point end, SystemNode dest) {
+        Wire newWire = new Wire(start, end);
+        if (!addWire(newWire, dest)) {
+            return false;
+        }
+        Packet newPacket = packets.create(Packet.Shape.SQUARE, start.x, start.y, 0, 0, 10);
+        newPacket.followWire(newWire);
+        newWire.placePacket(newPacket); // Associate packet with wire
+        addPacket(newPacket);
+        if (flowStats != null) {
+            flowStats.enteredWire(newPacket.getSlot(), newWire.getIndex(), tick);
+        }
+        return true;
     }
 
+    /** Starts moving a packet created with getPacketStore().create(). */
     public void addPacket(Packet p) {
-        packets.add(p);
+        int slot = p.getSlot();
+        packets.addMoving(slot);
         // Only count packets spawned by the player, not re-routed ones
-        if (p.getVelocity().distance(0, 0) != 0) { // A rough check
-             totalPacketsSpawned++;
+        if (packets.vx[slot] != 0 || packets.vy[slot] != 0) { // A rough check
+             metrics.packetSpawned();
+        }
+        if (flowStats != null) {
+            flowStats.spawned(slot, tick);
         }
     }
 
     public void addSystem(SystemNode s) {
+        s.setIndex(systems.size());
         systems.add(s);
+        s.attachMetrics(metrics);
+        s.attachReadySystems(readySystems);
+        if (!wires.isEmpty()) {
+            // Once there are wires the indexes are kept current, and wires under the new body are marked
+            indexOutputPorts();
+            for (Wire w : wiringIndex.wiresThrough(s)) {
+                w.markCrossesSystem();
+            }
+        }
+        topologyVersion++;
     }
 
+    // Ports and bodies are only indexed once wires are laid, so adding thousands of systems stays cheap
+    private void indexOutputPorts() {
+        for (; indexedSystems < systems.size(); indexedSystems++) {
+            SystemNode s = systems.get(indexedSystems);
+            for (Point port : s.getOutputPorts()) {
+                outputPortOwners.computeIfAbsent(port, k -> new ArrayList<>(1)).add(s);
+            }
+            wiringIndex.addSystem(s);
+        }
+    }
+
+    /**
+     * Has a new packet appear in the system's buffer at the given tick. A packet that finds the
+     * buffer full is lost. Spawns for a tick that has already passed happen on the next update.
+     */
+    public void scheduleSpawn(long atTick, SystemNode system, Packet.Shape shape, int size) {
+        int i = spawns.size();
+        while (i > nextSpawn && spawns.get(i - 1).tick > atTick) {
+            i--;
+        }
+        spawns.add(i, new Spawn(atTick, system, shape, size));
+    }
+
+    SweptCollider getSweptCollider() { return sweptCollider; }
+    // The tick of the next scheduled spawn, or -1 if there is none
+    long nextSpawnTick() {
+        return nextSpawn < spawns.size() ? spawns.get(nextSpawn).tick : -1;
+    }
+
+    List<Spawn> getSpawns() { return spawns; }
+    int getNextSpawn() { return nextSpawn; }
+    void setNextSpawn(int next) { this.nextSpawn = next; }
+
     public GameStatus getCurrentStatus() { return currentStatus; }
-    public List<Packet> getPackets() { return packets; }
+    public PacketStore getPacketStore() { return packets; }
     public List<SystemNode> getSystems() { return systems; }
     public List<Wire> getWires() { return wires; }
-    public int getPacketLoss() { return packetLoss; }
+    public int getPacketLoss() { return metrics.getLost(); }
     public int getCoins() { return coins; }
     public double getRemainingWireLength() { return remainingWireLength; }
-    public int getPacketsDelivered() { return packetsDelivered; }
+    public int getPacketsDelivered() { return metrics.getDelivered(); }
+    public GameMetrics getMetrics() { return metrics; }
+    public long getTick() { return tick; }
+    public int getTopologyVersion() { return topologyVersion; }
+    public CollisionMode getCollisionMode() { return collisionMode; }
+    public void setCollisionMode(CollisionMode collisionMode) { this.collisionMode = collisionMode; }
+    public TickProfiler getProfiler() { return profiler; }
+    public void setProfiler(TickProfiler profiler) { this.profiler = profiler; }
+    public FlowStats getFlowStats() { return flowStats; }
+    public void setFlowStats(FlowStats flowStats) { this.flowStats = flowStats; }
+    public MovementMode getMovementMode() { return movementMode; }
+    public void setMovementMode(MovementMode movementMode) { this.movementMode = movementMode; }
+    public CrossingRule getCrossingRule() { return crossingRule; }
+    public void setCrossingRule(CrossingRule crossingRule) { this.crossingRule = crossingRule; }
+    public int getParallelThreshold() { return parallelThreshold; }
+    public void setParallelThreshold(int parallelThreshold) { this.parallelThreshold = parallelThreshold; }
+
+    // The phases below are package-private so the benchmarks can time them one by one
 
-    private void checkEndConditions() {
-        if (packetsDelivered >= 10) {
+    // Constant time: everything it needs is kept up to date by GameMetrics
+    void checkEndConditions() {
+        if (metrics.getDelivered() >= 10) {
             currentStatus = GameStatus.WIN;
             return;
         }
-        if (totalPacketsSpawned > 0 && (double) packetLoss / totalPacketsSpawned > 0.5) {
+        if (metrics.getLossRatio() > 0.5) {
             currentStatus = GameStatus.GAME_OVER;
             return;
         }
-        if (packets.isEmpty() && remainingWireLength < 1) {
-             boolean allBuffersEmpty = true;
-             for(SystemNode node : systems) {
-                 if(node.getBufferSize() > 0) {
-                     allBuffersEmpty = false;
-                     break;
-                 }
-             }
-             if(allBuffersEmpty) {
-                 currentStatus = GameStatus.GAME_OVER;
-             }
+        if (metrics.getInFlight() == 0 && remainingWireLength < 1 && metrics.getBuffered() == 0
+                && nextSpawn == spawns.size()) {
+            currentStatus = GameStatus.GAME_OVER;
+        }
+    }
+
+    private void detectCollisionsPairwise() {
+        int[] moving = packets.moving;
+        double[] x = packets.x;
+        double[] y = packets.y;
+        int[] size = packets.size;
+        double[] noise = packets.noise;
+        for (int i = 0; i < packets.movingCount; i++) {
+            for (int j = i + 1; j < packets.movingCount; j++) {
+                int p1 = moving[i];
+                int p2 = moving[j];
+                if (SpatialHashGrid.distance(x[p1], y[p1], x[p2], y[p2]) < (size[p1] / 2.0 + size[p2] / 2.0)) {
+                    noise[p1] += 1;
+                    noise[p2] += 1;
+                }
+            }
         }
     }
 
@@ -95,95 +302,244 @@ public class GameState {
         if (currentStatus != GameStatus.RUNNING) {
             return;
         }
+        tick++;
+        if (flowStats != null) {
+            flowStats.advanceTo(tick);
+        }
+
+        TickProfiler p = profiler;
+        if (p == null) {
+            releaseSpawns();
+            detectCollisions();
+            stepPackets();
+            deliverArrivals();
+            reroutePackets();
+            checkEndConditions();
+            return;
+        }
+        long start = System.nanoTime();
+        releaseSpawns(); // Cheap; counted with the collision phase
+        detectCollisions();
+        long collided = System.nanoTime();
+        stepPackets();
+        long moved = System.nanoTime();
+        deliverArrivals();
+        long arrived = System.nanoTime();
+        reroutePackets();
+        long rerouted = System.nanoTime();
+        checkEndConditions();
+        long end = System.nanoTime();
+        p.record(Phase.COLLISION, collided - start);
+        p.record(Phase.MOVEMENT, moved - collided);
+        p.record(Phase.ARRIVAL, arrived - moved);
+        p.record(Phase.REROUTE, rerouted - arrived);
+        p.record(Phase.END_CHECK, end - rerouted);
+        p.record(Phase.UPDATE, end - start);
+        p.recordCounts(packets.getMovingCount(), packets.getLiveCount(), wires.size(), systems.size());
+    }
 
-        // Collision detection (no changes)
-        List<Packet> currentPackets = new ArrayList<>(packets);
-        for (int i = 0; i < currentPackets.size(); i++) {
-            for (int j = i + 1; j < currentPackets.size(); j++) {
-                Packet p1 = currentPackets.get(i);
-                Packet p2 = currentPackets.get(j);
-                if (p1.getPosition().distance(p2.getPosition()) < (p1.getSize() / 2.0 + p2.getSize() / 2.0)) {
-                    p1.addNoise(1);
-                    p2.addNoise(1);
+    /**
+     * Has the same effect as calling update() until the tick reaches targetTick or the game ends,
+     * but jumps straight over stretches in which only movement happens. A packet crossing a long
+     * wire alone costs one jump instead of one update per tick, so headless runs can cover hours
+     * of game time in milliseconds. Profiling only sees the ticks that are actually run.
+     */
+    public void runUntil(long targetTick) {
+        while (currentStatus == GameStatus.RUNNING && tick < targetTick) {
+            if (idleCheckIn > 0) {
+                idleCheckIn--;
+                update();
+                continue;
+            }
+            long idle = idleSkipper.idleTicks(this, targetTick - tick);
+            if (idle < 2) {
+                // A busy board: back off so the search doesn't double the cost of every tick
+                idleCheckBackoff = Math.min(64, idleCheckBackoff * 2);
+                idleCheckIn = idleCheckBackoff;
+                update();
+                continue;
+            }
+            idleCheckBackoff = 1;
+            idleSkipper.skip(packets, idle);
+            sweptCollider.clearContacts(); // No pair touched during the skipped ticks
+            tick += idle;
+            if (flowStats != null) {
+                flowStats.advanceTo(tick);
+            }
+        }
+    }
+
+    void releaseSpawns() {
+        while (nextSpawn < spawns.size() && spawns.get(nextSpawn).tick <= tick) {
+            Spawn spawn = spawns.get(nextSpawn++);
+            Point at = spawn.system.getLocation();
+            Packet p = packets.create(spawn.shape, at.x, at.y, 0, 0, spawn.size);
+            metrics.packetSpawned();
+            if (flowStats != null) {
+                flowStats.spawned(p.getSlot(), tick);
+            }
+            if (spawn.system.canStorePacket()) {
+                spawn.system.storePacket(p);
+                if (flowStats != null) {
+                    flowStats.stored(p.getSlot(), spawn.system.getIndex(), spawn.system.getBufferSize(), tick);
+                }
+            } else {
+                metrics.packetLost();
+                if (flowStats != null) {
+                    flowStats.dropped(p.getSlot(), spawn.system.getIndex(), tick);
+                    flowStats.lost(p.getSlot(), tick);
                 }
+                packets.free(p.getSlot());
             }
         }
+    }
+
+    void detectCollisions() {
+        switch (collisionMode) {
+            case PAIRWISE -> detectCollisionsPairwise();
+            case SPATIAL_HASH -> collisionGrid.detectCollisions(packets);
+            case SWEPT -> sweptCollider.detectCollisions(packets);
+        }
+    }
+
+    // Packet movement and arrival
+    void movePackets() {
+        stepPackets();
+        deliverArrivals();
+    }
 
-        // Packet movement and arrival
-        Iterator<Packet> it = packets.iterator();
-        while (it.hasNext()) {
-            Packet p = it.next();
-            p.move();
+    // Moves every packet, drops the lost ones and queues the ones that reached the end of their wire
+    void stepPackets() {
+        int[] moving = packets.moving;
+        // In parallel mode every packet is stepped up front; everything shared is still changed
+        // below, one packet at a time in list order, so both modes give the same result
+        byte[] outcomes = movementMode == MovementMode.PARALLEL && packets.movingCount >= parallelThreshold
+                ? parallelMover.stepAll(packets) : null;
+        int kept = 0; // Packets still moving are compacted to the front, keeping their order
+        for (int i = 0; i < packets.movingCount; i++) {
+            int slot = moving[i];
+            byte outcome = outcomes != null ? outcomes[i] : packets.step(slot);
 
-            if (p.isLost()) {
-                packetLoss++;
-                it.remove();
+            Wire w = packets.wire[slot];
+            if (outcome == PacketStore.LOST) {
+                metrics.packetLost();
+                if (flowStats != null) {
+                    if (w != null) {
+                        flowStats.leftWire(slot, w.getIndex(), false, tick);
+                    }
+                    flowStats.lost(slot, tick);
+                }
+                // The slot is about to be reused, so the wire must stop pointing at it
+                if (w != null) {
+                    w.clearPacket();
+                }
+                packets.free(slot);
                 continue;
             }
 
-            for (Wire w : wires) {
-                // Check if the packet is on this wire and has arrived
-                if (w.getOccupyingPacket() == p && p.getPosition().distance(w.getEnd()) < p.getSize()) {
-                    SystemNode dest = wireDestinations.get(w);
-                    if (dest != null && dest.canStorePacket()) {
-                        dest.storePacket(p);
-                        coins += 1;
-                        packetsDelivered++;
-                    } else {
-                        packetLoss++;
-                    }
-                    w.clearPacket(); // Free up the wire
-                    it.remove();
-                    break; 
+            // Check if the packet has reached the end of its wire
+            if (outcome == PacketStore.ARRIVED) {
+                if (arrivalCount == arrivals.length) {
+                    arrivals = Arrays.copyOf(arrivals, arrivalCount * 2);
                 }
+                arrivals[arrivalCount++] = w;
+                continue;
             }
+            moving[kept++] = slot;
         }
-        
-        // --- NEW: Re-routing logic ---
-        // Check each system to see if it can release a packet
-        for (SystemNode node : systems) {
-            if (node.getBufferSize() > 0) {
-                // Find an empty output wire connected to this system
-                for (Wire wire : wires) {
-                    if (!wire.isOccupied()) {
-                        boolean wireBelongsToNode = false;
-                        for (Point portPos : node.getOutputPorts()) {
-                            if (wire.getStart().equals(portPos)) {
-                                wireBelongsToNode = true;
-                                break;
-                            }
-                        }
-
-                        if (wireBelongsToNode) {
-                            // Found an empty output wire. Release a packet.
-                            Packet packetToRelease = node.releasePacket();
-                            if (packetToRelease != null) {
-                                // Reset its position to the start of the new wire
-                                packetToRelease.setPosition(new Point(wire.getStart()));
-
-                                // Calculate new velocity along the wire
-                                double length = wire.getLength();
-                                int speed = 2;
-                                Point velocity = new Point(
-                                        (int) ((wire.getEnd().x - wire.getStart().x) * speed / length),
-                                        (int) ((wire.getEnd().y - wire.getStart().y) * speed / length)
-                                );
-                                packetToRelease.setVelocity(velocity);
-
-                                // Add it back to the list of moving packets
-                                packets.add(packetToRelease);
-                                // Mark the wire as occupied by this packet
-                                wire.placePacket(packetToRelease);
-                                
-                                // Packet has been re-routed, move to the next system
-                                break; 
-                            }
-                        }
-                    }
+        packets.movingCount = kept;
+    }
+
+    // Only the packets that actually arrived cost anything here
+    void deliverArrivals() {
+        for (int i = 0; i < arrivalCount; i++) {
+            Wire w = arrivals[i];
+            arrivals[i] = null;
+            Packet p = w.getOccupyingPacket();
+            SystemNode dest = wireDestinations.get(w);
+            if (flowStats != null) {
+                flowStats.leftWire(p.getSlot(), w.getIndex(), true, tick);
+            }
+            if (dest != null && dest.canStorePacket()) {
+                dest.storePacket(p);
+                packets.wire[p.getSlot()] = null;
+                coins += 1;
+                metrics.packetDelivered();
+                if (flowStats != null) {
+                    flowStats.stored(p.getSlot(), dest.getIndex(), dest.getBufferSize(), tick);
+                    flowStats.delivered(p.getSlot(), tick);
+                }
+            } else {
+                metrics.packetLost();
+                if (flowStats != null) {
+                    flowStats.dropped(p.getSlot(), dest == null ? -1 : dest.getIndex(), tick);
+                    flowStats.lost(p.getSlot(), tick);
                 }
+                packets.free(p.getSlot());
+            }
+            w.clearPacket(); // Free up the wire
+        }
+        arrivalCount = 0;
+    }
+
+    // --- NEW: Re-routing logic ---
+    // Check each ready system to see if it can release a packet. They are visited in index order,
+    // as a scan of the system list would, and kept on the list while they can release more.
+    // Releasing only takes wires, so no system is put on the list during the pass.
+    void reroutePackets() {
+        readySystems.sort();
+        int[] ready = readySystems.indexes;
+        int kept = 0;
+        for (int r = 0; r < readySystems.count; r++) {
+            int i = ready[r];
+            SystemNode node = systems.get(i);
+            releaseFrom(node, i);
+            if (canRelease(node)) {
+                ready[kept++] = i;
+            } else {
+                readySystems.unmark(i);
+            }
+        }
+        readySystems.count = kept;
+    }
+
+    // Only systems holding packets and having a free output wire have anything to do
+    private static boolean canRelease(SystemNode node) {
+        return node.getBufferSize() > 0 && node.getFreeOutgoingWireCount() > 0;
+    }
+
+    /** Whether some system can release a packet in the next tick. */
+    boolean anySystemCanRelease() {
+        for (int r = 0; r < readySystems.count; r++) {
+            if (canRelease(systems.get(readySystems.indexes[r]))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void releaseFrom(SystemNode node, int i) {
+        if (!canRelease(node)) {
+            return;
+        }
+        Wire wire = node.firstFreeOutgoingWire();
+        if (wire == null) {
+            return;
+        }
+        // Found an empty output wire. Release a packet.
+        Packet packetToRelease = node.releasePacket();
+        if (packetToRelease != null) {
+            // Start it from the beginning of the new wire
+            packetToRelease.followWire(wire);
+
+            // Add it back to the list of moving packets
+            packets.addMoving(packetToRelease.getSlot());
+            // Mark the wire as occupied by this packet
+            wire.placePacket(packetToRelease);
+            if (flowStats != null) {
+                flowStats.released(packetToRelease.getSlot(), i, node.getBufferSize(), tick);
+                flowStats.enteredWire(packetToRelease.getSlot(), wire.getIndex(), tick);
             }
         }
-        
-        checkEndConditions();
     }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.yourname.blueprinthell.model;
+
+/**
+ * Cell arithmetic shared by the uniform grids over the board: WiringIndex in the model and the
+ * view's scene index. Cells are addressed by a single long key so they can live in a HashMap.
+ */
+public final class GridCells {
+
+    /** Called for each cell along a wire; returns false to stop early. */
+    public interface Visitor {
+        boolean visit(long cell);
+    }
+
+    private GridCells() { }
+
+    public static int cellOf(int coordinate, int cellSize) {
+        return Math.floorDiv(coordinate, cellSize);
+    }
+
+    public static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Walks the cells the wire passes through, from start to end, one grid line at a time.
+     * Where the wire goes exactly through a cell corner only one of the two side cells is
+     * visited; the wire touches the other at a single point.
+     */
+    public static void forEachCell(Wire w, int cellSize, Visitor visitor) {
+        double x0 = w.getStart().x;
+        double y0 = w.getStart().y;
+        double dx = w.getDeltaX();
+        double dy = w.getDeltaY();
+        int cx = cellOf(w.getStart().x, cellSize);
+        int cy = cellOf(w.getStart().y, cellSize);
+        int endCx = cellOf(w.getEnd().x, cellSize);
+        int endCy = cellOf(w.getEnd().y, cellSize);
+        int stepX = dx > 0 ? 1 : -1;
+        int stepY = dy > 0 ? 1 : -1;
+        // Wire parameter at which the next vertical / horizontal grid line is crossed
+        double nextX = dx == 0 ? Double.POSITIVE_INFINITY : ((cx + (dx > 0 ? 1 : 0)) * (double) cellSize - x0) / dx;
+        double nextY = dy == 0 ? Double.POSITIVE_INFINITY : ((cy + (dy > 0 ? 1 : 0)) * (double) cellSize - y0) / dy;
+        double deltaX = dx == 0 ? Double.POSITIVE_INFINITY : cellSize / Math.abs(dx);
+        double deltaY = dy == 0 ? Double.POSITIVE_INFINITY : cellSize / Math.abs(dy);
+
+        // Exactly this many steps reach the end cell, whatever rounding does to the parameters
+        int remainingX = Math.abs(endCx - cx);
+        int remainingY = Math.abs(endCy - cy);
+        while (visitor.visit(key(cx, cy)) && remainingX + remainingY > 0) {
+            if (remainingY == 0 || (remainingX > 0 && nextX < nextY)) {
+                cx += stepX;
+                nextX += deltaX;
+                remainingX--;
+            } else {
+                cy += stepY;
+                nextY += deltaY;
+                remainingY--;
+            }
+        }
+    }
+}
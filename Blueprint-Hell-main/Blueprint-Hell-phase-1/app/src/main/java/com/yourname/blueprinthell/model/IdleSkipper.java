@@ -0,0 +1,127 @@
+package com.yourname.blueprinthell.model;
+
+/**
+ * Finds stretches of ticks in which nothing but movement can happen, and jumps over them.
+ * A tick is idle when no packet reaches the end of its wire, no two packets get within touching
+ * distance, no system can release a packet and no spawn is due. In such a tick the counters and
+ * status cannot change, so the only work is moving the packets, which skip() does in one go
+ * with the same arithmetic the tick engine uses: packets on wires are placed from their step
+ * count, loose packets add their velocity once per tick. Positions stay exact to the last bit.
+ * <p>
+ * The next event is found by a scan over the board rather than kept in a priority queue:
+ * every skip has to touch each moving packet anyway to keep its position exact.
+ */
+final class IdleSkipper implements SpatialHashGrid.PairVisitor {
+    static final long MAX_SKIP = 1L << 20; // Keeps the step counts far from overflowing
+    private static final double MARGIN = 1e-3; // Pixels kept in hand for rounding in the position math
+
+    private final SpatialHashGrid grid;
+    private double[] speed = new double[0]; // Per moving index: the most a packet moves in one tick
+    private PacketStore packets;
+    private long window;
+
+    IdleSkipper(SpatialHashGrid grid) {
+        this.grid = grid;
+    }
+
+    /** How many of the next ticks, at most limit, are certain to be idle. */
+    long idleTicks(GameState state, long limit) {
+        window = Math.min(limit, MAX_SKIP);
+        long nextSpawn = state.nextSpawnTick();
+        if (nextSpawn >= 0) {
+            window = Math.min(window, nextSpawn - state.getTick() - 1);
+        }
+        if (state.anySystemCanRelease()) {
+            return 0;
+        }
+        if (window <= 0) {
+            return 0;
+        }
+
+        packets = state.getPacketStore();
+        int n = packets.movingCount;
+        if (speed.length < n) {
+            speed = new double[Math.max(16, Integer.highestOneBit(n - 1) << 1)];
+        }
+        int maxSize = 1;
+        double maxSpeed = 0;
+        for (int i = 0; i < n && window > 0; i++) {
+            int slot = packets.moving[i];
+            if (packets.onPath[slot]) {
+                if (packets.wire[slot] != null) {
+                    window = Math.min(window, ticksToArrival(slot) - 1);
+                }
+                speed[i] = Packet.SPEED;
+            } else {
+                speed[i] = Math.sqrt(packets.vx[slot] * packets.vx[slot] + packets.vy[slot] * packets.vy[slot]);
+            }
+            maxSize = Math.max(maxSize, packets.size[slot]);
+            maxSpeed = Math.max(maxSpeed, speed[i]);
+        }
+
+        // Pairs further apart than a cell can't meet within the window; the rest are checked one by one
+        if (window > 0 && n >= 2) {
+            grid.forEachNearbyPair(packets, maxSize + 2 * maxSpeed * window + 2 * MARGIN, this);
+        }
+        packets = null;
+        return Math.max(0, window);
+    }
+
+    @Override
+    public void visit(int i, int j) {
+        if (window <= 0) {
+            return;
+        }
+        int p1 = packets.moving[i];
+        int p2 = packets.moving[j];
+        double gap = SpatialHashGrid.distance(packets.x[p1], packets.y[p1], packets.x[p2], packets.y[p2])
+                - (packets.size[p1] / 2.0 + packets.size[p2] / 2.0) - MARGIN;
+        if (gap < 0) {
+            window = 0;
+            return;
+        }
+        // Closing by at most speed[i] + speed[j] a tick, the pair stays apart (even swept) for this many ticks
+        double closing = speed[i] + speed[j];
+        if (closing > 0) {
+            window = Math.min(window, (long) Math.floor(gap / closing));
+        }
+    }
+
+    /** Moves every packet as the given number of idle ticks would. */
+    void skip(PacketStore store, long ticks) {
+        int[] moving = store.moving;
+        for (int i = 0; i < store.movingCount; i++) {
+            int slot = moving[i];
+            if (store.onPath[slot]) {
+                store.steps[slot] += (int) ticks;
+                double t = store.progress(slot);
+                store.x[slot] = store.originX[slot] + store.deltaX[slot] * t;
+                store.y[slot] = store.originY[slot] + store.deltaY[slot] * t;
+            } else {
+                double x = store.x[slot];
+                double y = store.y[slot];
+                double vx = store.vx[slot];
+                double vy = store.vy[slot];
+                for (long k = 0; k < ticks; k++) {
+                    x += vx;
+                    y += vy;
+                }
+                store.x[slot] = x;
+                store.y[slot] = y;
+            }
+        }
+    }
+
+    // The number of steps after which the packet's progress first reaches 1
+    private long ticksToArrival(int slot) {
+        int steps = packets.steps[slot];
+        long m = Math.max(1, (long) Math.ceil(packets.pathLength[slot] / Packet.SPEED) - steps);
+        while (m > 1 && packets.progressAt(slot, (int) (steps + m - 1)) >= 1.0) {
+            m--;
+        }
+        while (packets.progressAt(slot, (int) (steps + m)) < 1.0) {
+            m++;
+        }
+        return m;
+    }
+}
@@ -0,0 +1,79 @@
+package com.yourname.blueprinthell.model;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing set of non-zero longs. Clearing keeps the table, so a set that is refilled
+ * every tick stops allocating once it has grown to size.
+ */
+final class LongHashSet {
+    private long[] keys = new long[16]; // 0 marks an empty slot
+    private int size = 0;
+
+    int size() { return size; }
+
+    boolean contains(long key) {
+        int mask = keys.length - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) {
+                return true;
+            }
+            if (k == 0) {
+                return false;
+            }
+        }
+    }
+
+    /** Returns false if the key was already there. */
+    boolean add(long key) {
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+        int mask = keys.length - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) {
+                return false;
+            }
+            if (k == 0) {
+                keys[i] = key;
+                size++;
+                return true;
+            }
+        }
+    }
+
+    void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, 0);
+            size = 0;
+        }
+    }
+
+    /** Copies the keys into out, which must hold size() values; the order is unspecified. */
+    void toArray(long[] out) {
+        int n = 0;
+        for (long k : keys) {
+            if (k != 0) {
+                out[n++] = k;
+            }
+        }
+    }
+
+    private void grow() {
+        long[] old = keys;
+        keys = new long[old.length * 2];
+        size = 0;
+        for (long k : old) {
+            if (k != 0) {
+                add(k);
+            }
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
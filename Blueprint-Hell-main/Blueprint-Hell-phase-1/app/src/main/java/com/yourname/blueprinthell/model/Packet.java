@@ -2,50 +2,70 @@ package com.yourname.blueprinthell.model;
 
 import java.awt.*;
 
+/**
+ * Handle onto one slot of a PacketStore, which holds the actual packet data.
+ * Create packets with PacketStore.create(); a handle must not be used once its packet is lost.
+ */
 public class Packet {
     public enum Shape { SQUARE, TRIANGLE }
+    public static final double SPEED = 2.0; // Pixels per tick along a wire
 
-    private Shape shape;
-    private Point position;
-    private Point velocity;
-    private double noise;
-    private int size;
-
-    public Packet(Shape shape, Point position, Point velocity, int size) {
-        this.shape = shape;
-        this.position = position;
-        this.velocity = velocity;
-        this.size = size;
-        this.noise = 0.0;
+    private final PacketStore store;
+    private final int slot;
+
+    Packet(PacketStore store, int slot) {
+        this.store = store;
+        this.slot = slot;
     }
 
+    public int getSlot() { return slot; }
+
     // Getters/setters
-    public Shape getShape() { return shape; }
-    public Point getPosition() { return position; }
-    public Point getVelocity() { return velocity; }
-    public double getNoise() { return noise; }
-    public int getSize() { return size; }
+    public Shape getShape() { return store.getShape(slot); }
+    public double getNoise() { return store.noise[slot]; }
+    public int getSize() { return store.size[slot]; }
+    public double getX() { return store.x[slot]; }
+    public double getY() { return store.y[slot]; }
+
+    // Allocates a new Point on every call; the simulation itself works on the store arrays
+    public Point getPosition() { return new Point((int) store.x[slot], (int) store.y[slot]); }
+    public Point getVelocity() { return new Point((int) store.vx[slot], (int) store.vy[slot]); }
 
     public void move() {
-        position.translate(velocity.x, velocity.y);
+        store.advance(slot);
     }
 
     public void addNoise(double amount) {
-        noise += amount;
+        store.noise[slot] += amount;
     }
 
     public boolean isLost() {
-        return noise > size;
+        return store.noise[slot] > store.size[slot];
     }
 
-        // Add these methods to Packet.java
+    public void setPosition(double x, double y) {
+        store.x[slot] = x;
+        store.y[slot] = y;
+    }
 
-    public void setPosition(Point position) {
-        this.position = position;
+    // Free flight: the packet leaves any wire path, which frees the wire, and moves by its velocity
+    public void setVelocity(double vx, double vy) {
+        Wire w = store.wire[slot];
+        if (w != null) {
+            w.clearPacket();
+        }
+        store.onPath[slot] = false;
+        store.wire[slot] = null;
+        store.vx[slot] = vx;
+        store.vy[slot] = vy;
     }
 
-    public void setVelocity(Point velocity) {
-        this.velocity = velocity;
+    /** Sends the packet along a wire from its start, with sub-pixel precision. */
+    public void followWire(Wire wire) {
+        store.startPath(slot, wire);
     }
-}
 
+    public Wire getWire() { return store.wire[slot]; }
+
+    public double getProgress() { return store.getProgress(slot); }
+}
@@ -0,0 +1,94 @@
+package com.yourname.blueprinthell.model;
+
+/**
+ * Fixed-capacity packet queue backed by a preallocated array, used as a system's buffer.
+ * In FIFO order both ends are O(1). The priority policies pick the best packet with a scan and
+ * close the gap by shifting, which is cheap for buffer-sized capacities and never allocates.
+ */
+public final class PacketRingBuffer {
+    /** Which packet leaves first. Ties always go to the packet that has waited longest. */
+    public enum Policy {
+        FIFO,
+        SHAPE,          // Lowest Packet.Shape ordinal first (squares before triangles)
+        LOWEST_NOISE    // Least damaged packet first
+    }
+
+    private final Packet[] slots;
+    private int head = 0;
+    private int size = 0;
+    private Policy policy = Policy.FIFO;
+
+    public PacketRingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Buffer capacity must be at least 1, was " + capacity);
+        }
+        this.slots = new Packet[capacity];
+    }
+
+    public int capacity() { return slots.length; }
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public boolean isFull() { return size == slots.length; }
+    public Policy getPolicy() { return policy; }
+    public void setPolicy(Policy policy) { this.policy = policy; }
+
+    /** The packet at position i, counted from the oldest. */
+    public Packet get(int i) {
+        return slots[index(i)];
+    }
+
+    public boolean offer(Packet packet) {
+        if (isFull()) {
+            return false;
+        }
+        slots[index(size)] = packet;
+        size++;
+        return true;
+    }
+
+    public Packet poll() {
+        if (size == 0) {
+            return null;
+        }
+        int chosen = policy == Policy.FIFO ? 0 : best();
+        Packet packet = get(chosen);
+        // Close the gap by moving the older packets up one place, then drop the head
+        for (int i = chosen; i > 0; i--) {
+            slots[index(i)] = slots[index(i - 1)];
+        }
+        slots[head] = null;
+        head = head + 1 == slots.length ? 0 : head + 1;
+        size--;
+        return packet;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            slots[index(i)] = null;
+        }
+        head = 0;
+        size = 0;
+    }
+
+    private int best() {
+        int best = 0;
+        for (int i = 1; i < size; i++) {
+            if (compare(get(i), get(best)) < 0) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private int compare(Packet a, Packet b) {
+        if (policy == Policy.SHAPE) {
+            return Integer.compare(a.getShape().ordinal(), b.getShape().ordinal());
+        }
+        return Double.compare(a.getNoise(), b.getNoise());
+    }
+
+    private int index(int i) {
+        int j = head + i;
+        return j >= slots.length ? j - slots.length : j;
+    }
+}
@@ -0,0 +1,284 @@
+package com.yourname.blueprinthell.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds the data of every live packet in parallel primitive arrays, indexed by slot.
+ * A Packet is only a handle onto its slot. Handles are created once per slot and reused when
+ * the slot is freed and handed out again, so a running game stops allocating packets.
+ * <p>
+ * The store also keeps the "moving" list: the slots of packets that are travelling, in the order
+ * they were added. Packets waiting in a system buffer keep their slot but are not in that list.
+ */
+public final class PacketStore {
+    private static final Packet.Shape[] SHAPES = Packet.Shape.values();
+
+    // Per-slot data; package-private so the simulation phases can read the arrays directly
+    double[] x = new double[0];
+    double[] y = new double[0];
+    double[] vx = new double[0];
+    double[] vy = new double[0];
+    double[] noise = new double[0];
+    int[] size = new int[0];
+    byte[] shape = new byte[0];
+
+    // Parametric path along a wire: position = origin + delta * progress, progress = steps * SPEED / length
+    boolean[] onPath = new boolean[0];
+    double[] originX = new double[0];
+    double[] originY = new double[0];
+    double[] deltaX = new double[0];
+    double[] deltaY = new double[0];
+    double[] pathLength = new double[0];
+    int[] steps = new int[0];
+    Wire[] wire = new Wire[0]; // The wire the packet is travelling on, or null
+    int[] serial = new int[0]; // Never reused, unlike slots; identifies a packet across ticks
+    private int nextSerial = 1;
+
+    private Packet[] handles = new Packet[0];
+
+    private int[] freeSlots = new int[0];
+    private int freeCount = 0;
+    private int usedSlots = 0; // Slots below this have been handed out at least once
+    private int liveCount = 0;
+
+    int[] moving = new int[0];
+    int movingCount = 0;
+
+    public Packet create(Packet.Shape packetShape, double px, double py, double pvx, double pvy, int packetSize) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (usedSlots == handles.length) {
+                grow();
+            }
+            slot = usedSlots++;
+            handles[slot] = new Packet(this, slot);
+        }
+        x[slot] = px;
+        y[slot] = py;
+        vx[slot] = pvx;
+        vy[slot] = pvy;
+        noise[slot] = 0.0;
+        size[slot] = packetSize;
+        shape[slot] = (byte) packetShape.ordinal();
+        onPath[slot] = false;
+        wire[slot] = null;
+        serial[slot] = nextSerial++;
+        liveCount++;
+        return handles[slot];
+    }
+
+    /** Returns the slot to the pool. The packet must no longer be moving or buffered. */
+    void free(int slot) {
+        wire[slot] = null;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, Math.max(16, freeSlots.length * 2));
+        }
+        freeSlots[freeCount++] = slot;
+        liveCount--;
+    }
+
+    void addMoving(int slot) {
+        if (movingCount == moving.length) {
+            moving = Arrays.copyOf(moving, Math.max(16, moving.length * 2));
+        }
+        moving[movingCount++] = slot;
+    }
+
+    /**
+     * Puts the packet at the start of the wire and has it travel along it at Packet.SPEED.
+     * The velocity is kept in step for code that only looks at it, such as the spawn count.
+     */
+    void startPath(int slot, Wire path) {
+        double dx = path.getDeltaX();
+        double dy = path.getDeltaY();
+        double length = path.getLength();
+        onPath[slot] = true;
+        originX[slot] = path.getStart().x;
+        originY[slot] = path.getStart().y;
+        deltaX[slot] = dx;
+        deltaY[slot] = dy;
+        pathLength[slot] = length;
+        steps[slot] = 0;
+        x[slot] = originX[slot];
+        y[slot] = originY[slot];
+        vx[slot] = length == 0 ? 0 : dx * Packet.SPEED / length;
+        vy[slot] = length == 0 ? 0 : dy * Packet.SPEED / length;
+        wire[slot] = path;
+    }
+
+    /** Advances one tick: along the path if the packet has one, otherwise by its velocity. */
+    void advance(int slot) {
+        if (onPath[slot]) {
+            steps[slot]++;
+            double t = progress(slot);
+            x[slot] = originX[slot] + deltaX[slot] * t;
+            y[slot] = originY[slot] + deltaY[slot] * t;
+        } else {
+            x[slot] += vx[slot];
+            y[slot] += vy[slot];
+        }
+    }
+
+    // What happened to a packet in step()
+    static final byte KEEP = 0;
+    static final byte LOST = 1;
+    static final byte ARRIVED = 2;
+
+    /**
+     * Advances one tick and reports whether the packet keeps moving, was lost to noise or reached
+     * the end of its wire. Only reads and writes this slot, so slots can be stepped in parallel.
+     */
+    byte step(int slot) {
+        advance(slot);
+        if (noise[slot] > size[slot]) {
+            return LOST;
+        }
+        if (wire[slot] != null && progress(slot) >= 1.0) {
+            return ARRIVED;
+        }
+        return KEEP;
+    }
+
+    /** How far along its path the packet is, from 0 at the start to 1 at the end. */
+    double progress(int slot) {
+        return progressAt(slot, steps[slot]);
+    }
+
+    /** The progress the packet will have after the given number of steps along its path. */
+    double progressAt(int slot, int pathSteps) {
+        double length = pathLength[slot];
+        return length == 0 ? 1.0 : Math.min(1.0, pathSteps * Packet.SPEED / length);
+    }
+
+    /** Where advance() will put the packet, without moving it. */
+    double nextX(int slot) {
+        return onPath[slot] ? originX[slot] + deltaX[slot] * progressAt(slot, steps[slot] + 1) : x[slot] + vx[slot];
+    }
+
+    double nextY(int slot) {
+        return onPath[slot] ? originY[slot] + deltaY[slot] * progressAt(slot, steps[slot] + 1) : y[slot] + vy[slot];
+    }
+
+    private void grow() {
+        int capacity = Math.max(16, handles.length * 2);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        vx = Arrays.copyOf(vx, capacity);
+        vy = Arrays.copyOf(vy, capacity);
+        noise = Arrays.copyOf(noise, capacity);
+        size = Arrays.copyOf(size, capacity);
+        shape = Arrays.copyOf(shape, capacity);
+        onPath = Arrays.copyOf(onPath, capacity);
+        originX = Arrays.copyOf(originX, capacity);
+        originY = Arrays.copyOf(originY, capacity);
+        deltaX = Arrays.copyOf(deltaX, capacity);
+        deltaY = Arrays.copyOf(deltaY, capacity);
+        pathLength = Arrays.copyOf(pathLength, capacity);
+        steps = Arrays.copyOf(steps, capacity);
+        wire = Arrays.copyOf(wire, capacity);
+        serial = Arrays.copyOf(serial, capacity);
+        handles = Arrays.copyOf(handles, capacity);
+    }
+
+    // --- Save files: every slot ever handed out, the free stack and the moving list, in bulk ---
+
+    /** Bytes writeTo() needs. */
+    long byteSize() {
+        return 4L * Integer.BYTES + 4L * freeCount + 4L * movingCount + (long) usedSlots * SLOT_BYTES;
+    }
+
+    private static final int SLOT_BYTES = 10 * Double.BYTES + 4 * Integer.BYTES + 2;
+
+    void writeTo(ByteBuffer out, Map<Wire, Integer> wireIndex) {
+        out.putInt(usedSlots);
+        out.putInt(nextSerial);
+        out.putInt(freeCount);
+        out.asIntBuffer().put(freeSlots, 0, freeCount);
+        out.position(out.position() + freeCount * Integer.BYTES);
+        out.putInt(movingCount);
+        out.asIntBuffer().put(moving, 0, movingCount);
+        out.position(out.position() + movingCount * Integer.BYTES);
+
+        for (double[] column : new double[][] { x, y, vx, vy, noise, originX, originY, deltaX, deltaY, pathLength }) {
+            out.asDoubleBuffer().put(column, 0, usedSlots);
+            out.position(out.position() + usedSlots * Double.BYTES);
+        }
+        for (int[] column : new int[][] { size, steps, serial }) {
+            out.asIntBuffer().put(column, 0, usedSlots);
+            out.position(out.position() + usedSlots * Integer.BYTES);
+        }
+        for (int slot = 0; slot < usedSlots; slot++) {
+            out.putInt(wire[slot] == null ? -1 : wireIndex.get(wire[slot]));
+        }
+        out.put(shape, 0, usedSlots);
+        for (int slot = 0; slot < usedSlots; slot++) {
+            out.put(onPath[slot] ? (byte) 1 : (byte) 0);
+        }
+    }
+
+    /** Replaces the contents of this (empty) store with what writeTo() wrote. */
+    void readFrom(ByteBuffer in, List<Wire> wires) {
+        int used = in.getInt();
+        int capacity = Math.max(16, used);
+        handles = new Packet[0];
+        usedSlots = 0;
+        while (handles.length < capacity) {
+            grow();
+        }
+        for (int slot = 0; slot < used; slot++) {
+            handles[slot] = new Packet(this, slot);
+        }
+        usedSlots = used;
+        nextSerial = in.getInt();
+
+        freeCount = in.getInt();
+        freeSlots = new int[Math.max(16, freeCount)];
+        in.asIntBuffer().get(freeSlots, 0, freeCount);
+        in.position(in.position() + freeCount * Integer.BYTES);
+        movingCount = in.getInt();
+        moving = new int[Math.max(16, movingCount)];
+        in.asIntBuffer().get(moving, 0, movingCount);
+        in.position(in.position() + movingCount * Integer.BYTES);
+        liveCount = usedSlots - freeCount;
+
+        for (double[] column : new double[][] { x, y, vx, vy, noise, originX, originY, deltaX, deltaY, pathLength }) {
+            in.asDoubleBuffer().get(column, 0, used);
+            in.position(in.position() + used * Double.BYTES);
+        }
+        for (int[] column : new int[][] { size, steps, serial }) {
+            in.asIntBuffer().get(column, 0, used);
+            in.position(in.position() + used * Integer.BYTES);
+        }
+        for (int slot = 0; slot < used; slot++) {
+            int index = in.getInt();
+            wire[slot] = index < 0 ? null : wires.get(index);
+        }
+        in.get(shape, 0, used);
+        for (int slot = 0; slot < used; slot++) {
+            onPath[slot] = in.get() != 0;
+        }
+    }
+
+    public Packet get(int slot) { return handles[slot]; }
+    public int getLiveCount() { return liveCount; }
+
+    // --- Moving packets, in travel order: for (i < getMovingCount()) slot = getMovingSlot(i) ---
+    public int getMovingCount() { return movingCount; }
+    public int getMovingSlot(int i) { return moving[i]; }
+
+    public double getX(int slot) { return x[slot]; }
+    public double getY(int slot) { return y[slot]; }
+    public double getVelocityX(int slot) { return vx[slot]; }
+    public double getVelocityY(int slot) { return vy[slot]; }
+    public double getNoise(int slot) { return noise[slot]; }
+    public int getSize(int slot) { return size[slot]; }
+    public Packet.Shape getShape(int slot) { return SHAPES[shape[slot]]; }
+    public boolean isOnPath(int slot) { return onPath[slot]; }
+    public double getProgress(int slot) { return onPath[slot] ? progress(slot) : 0.0; }
+    public Wire getWire(int slot) { return wire[slot]; }
+}
@@ -0,0 +1,54 @@
+package com.yourname.blueprinthell.model;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs PacketStore.step() over the moving list in fork-join chunks and records each packet's
+ * outcome, so GameState can apply the outcomes serially in list order.
+ * Every chunk only touches the slots it owns, and step() reads nothing another slot writes,
+ * so the positions match the serial loop bit for bit. The caller blocks until all chunks are done,
+ * so the GameState stays confined to its owning thread as far as anyone else can tell.
+ */
+final class ParallelMover {
+    static final int DEFAULT_THRESHOLD = 16_384; // Below this many moving packets, forking costs more than it saves
+    private static final int CHUNK = 4_096;
+
+    private byte[] outcomes = new byte[0];
+
+    /** Steps every moving packet; outcome i belongs to moving index i. */
+    byte[] stepAll(PacketStore packets) {
+        int n = packets.movingCount;
+        if (outcomes.length < n) {
+            outcomes = new byte[Math.max(n, outcomes.length * 2)];
+        }
+        new Chunk(packets, outcomes, 0, n).invoke(); // Joins the current fork-join pool, or the common pool
+        return outcomes;
+    }
+
+    private static final class Chunk extends RecursiveAction {
+        private final PacketStore packets;
+        private final byte[] outcomes;
+        private final int from;
+        private final int to;
+
+        Chunk(PacketStore packets, byte[] outcomes, int from, int to) {
+            this.packets = packets;
+            this.outcomes = outcomes;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK) {
+                int[] moving = packets.moving;
+                for (int i = from; i < to; i++) {
+                    outcomes[i] = packets.step(moving[i]);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Chunk(packets, outcomes, from, middle), new Chunk(packets, outcomes, middle, to));
+        }
+    }
+}
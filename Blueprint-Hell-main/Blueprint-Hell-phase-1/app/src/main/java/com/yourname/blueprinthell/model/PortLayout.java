@@ -0,0 +1,63 @@
+package com.yourname.blueprinthell.model;
+
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Where a system's ports sit, as offsets from its centre. Layouts are immutable and meant to be
+ * shared: a level with ten thousand identical systems holds one layout, and each system only
+ * turns it into port Points the first time they are asked for.
+ */
+public final class PortLayout {
+    /** Two inputs on the left and two outputs on the right, as systems have always had. */
+    public static final PortLayout DEFAULT = new PortLayout(
+            new int[] { -20, -10, -20, 10 },
+            new int[] { 20, -10, 20, 10 });
+
+    private final int[] inputs;  // dx, dy pairs
+    private final int[] outputs;
+
+    /** Offsets are given as dx, dy pairs. */
+    public PortLayout(int[] inputs, int[] outputs) {
+        if (inputs.length % 2 != 0 || outputs.length % 2 != 0) {
+            throw new IllegalArgumentException("Port offsets must come in dx, dy pairs");
+        }
+        this.inputs = inputs.clone();
+        this.outputs = outputs.clone();
+    }
+
+    public int getInputCount() { return inputs.length / 2; }
+    public int getOutputCount() { return outputs.length / 2; }
+    public int getInputDx(int i) { return inputs[2 * i]; }
+    public int getInputDy(int i) { return inputs[2 * i + 1]; }
+    public int getOutputDx(int i) { return outputs[2 * i]; }
+    public int getOutputDy(int i) { return outputs[2 * i + 1]; }
+
+    List<Point> inputsAt(Point location) {
+        return pointsAt(location, inputs);
+    }
+
+    List<Point> outputsAt(Point location) {
+        return pointsAt(location, outputs);
+    }
+
+    private static List<Point> pointsAt(Point location, int[] offsets) {
+        Point[] points = new Point[offsets.length / 2];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new Point(location.x + offsets[2 * i], location.y + offsets[2 * i + 1]);
+        }
+        return List.of(points);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PortLayout other
+                && Arrays.equals(inputs, other.inputs) && Arrays.equals(outputs, other.outputs);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(inputs) + Arrays.hashCode(outputs);
+    }
+}
@@ -0,0 +1,47 @@
+package com.yourname.blueprinthell.model;
+
+import java.util.Arrays;
+
+/**
+ * Indexes of the systems that may be able to release a packet. Every system holding a packet
+ * and having a free outgoing wire is on the list; a system is put on it when a packet is stored
+ * or a wire frees up, and GameState.reroutePackets() takes it off once it can't release any more.
+ * A tick only looks at the systems where something happened, not at the whole board.
+ */
+final class ReadySystems {
+    int[] indexes = new int[16];
+    int count = 0;
+    private boolean[] listed = new boolean[16]; // By system index
+    private boolean sorted = true;
+
+    /** Puts the system on the list unless it is already there. */
+    void mark(int index) {
+        if (index >= listed.length) {
+            listed = Arrays.copyOf(listed, Math.max(listed.length * 2, index + 1));
+        }
+        if (listed[index]) {
+            return;
+        }
+        listed[index] = true;
+        if (count == indexes.length) {
+            indexes = Arrays.copyOf(indexes, count * 2);
+        }
+        if (count > 0 && indexes[count - 1] > index) {
+            sorted = false;
+        }
+        indexes[count++] = index;
+    }
+
+    /** Takes the system off; the caller removes it from indexes. */
+    void unmark(int index) {
+        listed[index] = false;
+    }
+
+    /** Puts the list in index order, the order the systems are visited in. */
+    void sort() {
+        if (!sorted) {
+            Arrays.sort(indexes, 0, count);
+            sorted = true;
+        }
+    }
+}
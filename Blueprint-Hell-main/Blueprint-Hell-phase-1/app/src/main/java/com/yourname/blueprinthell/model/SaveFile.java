@@ -0,0 +1,254 @@
+package com.yourname.blueprinthell.model;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Saves a whole GameState to a binary file and loads it back, so a game can be resumed exactly
+ * where it stopped. The file is written and read through a memory-mapped buffer: the packet data
+ * goes out and comes back in as a handful of bulk array copies rather than object by object.
+ * <pre>
+ * int magic "BPSV", int version
+ * status, collision mode, tick, topology version, coins, wire left, spawned/delivered/lost
+ * systems: x, y, buffer capacity, policy, port layout, buffered packet slots (oldest first)
+ * wires:   start, end, destination system, occupying packet slot (-1 if free)
+ * spawns:  index of the next one due, then tick, system, shape and size of each
+ * contacts: packet pairs touching at the end of the last tick, for CollisionMode.SWEPT
+ * packets: the PacketStore columns, see PacketStore.writeTo()
+ * </pre>
+ * Like every other GameState access, save and load must run on the thread that owns the state.
+ */
+public final class SaveFile {
+    private static final int MAGIC = 0x42505356; // "BPSV"
+    private static final int VERSION = 3; // 2 added port layouts and spawns, 3 packet serials and contacts
+
+    private SaveFile() { }
+
+    /**
+     * Writes the state to a .tmp file next to the save and then moves it over the save in one
+     * step, so a save that fails partway leaves the last good one in place.
+     */
+    public static void save(GameState state, Path file) throws IOException {
+        List<SystemNode> systems = state.getSystems();
+        List<Wire> wires = state.getWires();
+        PacketStore packets = state.getPacketStore();
+
+        long bytes = 2 * Integer.BYTES + 2 + Long.BYTES + 2 * Integer.BYTES + Double.BYTES + 3 * Integer.BYTES;
+        bytes += Integer.BYTES;
+        for (SystemNode s : systems) {
+            PortLayout ports = s.getPortLayout();
+            bytes += 6 * Integer.BYTES + 1 + (long) s.getBufferSize() * Integer.BYTES
+                    + 2L * (ports.getInputCount() + ports.getOutputCount()) * Integer.BYTES;
+        }
+        List<GameState.Spawn> spawns = state.getSpawns();
+        bytes += 2 * Integer.BYTES + (long) spawns.size() * (Long.BYTES + 2 * Integer.BYTES + 1);
+        long[] contacts = new long[state.getSweptCollider().getContactCount()];
+        state.getSweptCollider().copyContacts(contacts);
+        bytes += Integer.BYTES + (long) contacts.length * Long.BYTES;
+        bytes += Integer.BYTES + (long) wires.size() * 6 * Integer.BYTES;
+        bytes += packets.byteSize();
+
+        Map<Wire, Integer> wireIndex = new IdentityHashMap<>();
+        for (int i = 0; i < wires.size(); i++) {
+            wireIndex.put(wires.get(i), i);
+        }
+        Map<SystemNode, Integer> systemIndex = new IdentityHashMap<>();
+        for (int i = 0; i < systems.size(); i++) {
+            systemIndex.put(systems.get(i), i);
+        }
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            out.order(ByteOrder.LITTLE_ENDIAN);
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+
+            GameMetrics metrics = state.getMetrics();
+            out.put((byte) state.getCurrentStatus().ordinal());
+            out.put((byte) state.getCollisionMode().ordinal());
+            out.putLong(state.getTick());
+            out.putInt(state.getTopologyVersion());
+            out.putInt(state.getCoins());
+            out.putDouble(state.getRemainingWireLength());
+            out.putInt(metrics.getSpawned());
+            out.putInt(metrics.getDelivered());
+            out.putInt(metrics.getLost());
+
+            out.putInt(systems.size());
+            for (SystemNode s : systems) {
+                out.putInt(s.getLocation().x);
+                out.putInt(s.getLocation().y);
+                out.putInt(s.getBufferCapacity());
+                out.put((byte) s.getBufferPolicy().ordinal());
+                PortLayout ports = s.getPortLayout();
+                out.putInt(ports.getInputCount());
+                for (int i = 0; i < ports.getInputCount(); i++) {
+                    out.putInt(ports.getInputDx(i));
+                    out.putInt(ports.getInputDy(i));
+                }
+                out.putInt(ports.getOutputCount());
+                for (int i = 0; i < ports.getOutputCount(); i++) {
+                    out.putInt(ports.getOutputDx(i));
+                    out.putInt(ports.getOutputDy(i));
+                }
+                out.putInt(s.getBufferSize());
+                for (int i = 0; i < s.getBufferSize(); i++) {
+                    out.putInt(s.getBufferedPacket(i).getSlot());
+                }
+            }
+
+            out.putInt(wires.size());
+            for (Wire w : wires) {
+                SystemNode dest = state.getDestination(w);
+                out.putInt(w.getStart().x);
+                out.putInt(w.getStart().y);
+                out.putInt(w.getEnd().x);
+                out.putInt(w.getEnd().y);
+                out.putInt(dest == null ? -1 : systemIndex.get(dest));
+                out.putInt(w.isOccupied() ? w.getOccupyingPacket().getSlot() : -1);
+            }
+
+            out.putInt(state.getNextSpawn());
+            out.putInt(spawns.size());
+            for (GameState.Spawn spawn : spawns) {
+                out.putLong(spawn.tick);
+                out.putInt(systemIndex.get(spawn.system));
+                out.put((byte) spawn.shape.ordinal());
+                out.putInt(spawn.size);
+            }
+
+            out.putInt(contacts.length);
+            for (long pair : contacts) {
+                out.putLong(pair);
+            }
+
+            packets.writeTo(out, wireIndex);
+            out.force();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static GameState load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            in.order(ByteOrder.LITTLE_ENDIAN);
+            if (in.remaining() < 2 * Integer.BYTES || in.getInt() != MAGIC) {
+                throw new IOException(file + " is not a save file");
+            }
+            int version = in.getInt();
+            if (version != VERSION) {
+                throw new IOException(file + " has save version " + version + ", expected " + VERSION);
+            }
+            try {
+                return read(in);
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException
+                    | NegativeArraySizeException e) {
+                throw new IOException(file + " is damaged: " + e, e);
+            }
+        }
+    }
+
+    private static GameState read(MappedByteBuffer in) {
+        GameState.GameStatus status = GameState.GameStatus.values()[in.get()];
+        GameState.CollisionMode collisionMode = GameState.CollisionMode.values()[in.get()];
+        long tick = in.getLong();
+        int topologyVersion = in.getInt();
+        int coins = in.getInt();
+        double wireLeft = in.getDouble();
+        int spawned = in.getInt();
+        int delivered = in.getInt();
+        int lost = in.getInt();
+
+        GameState state = new GameState();
+        state.setCollisionMode(collisionMode);
+
+        int systemCount = in.getInt();
+        List<SystemNode> systems = new ArrayList<>(systemCount);
+        int[][] buffers = new int[systemCount][];
+        for (int i = 0; i < systemCount; i++) {
+            Point location = new Point(in.getInt(), in.getInt());
+            int capacity = in.getInt();
+            PacketRingBuffer.Policy policy = PacketRingBuffer.Policy.values()[in.get()];
+            int[] inputs = readInts(in, 2 * in.getInt());
+            int[] outputs = readInts(in, 2 * in.getInt());
+            PortLayout layout = new PortLayout(inputs, outputs);
+            SystemNode s = new SystemNode(location, capacity, layout.equals(PortLayout.DEFAULT) ? PortLayout.DEFAULT : layout);
+            s.setBufferPolicy(policy);
+            buffers[i] = new int[in.getInt()];
+            for (int j = 0; j < buffers[i].length; j++) {
+                buffers[i][j] = in.getInt();
+            }
+            systems.add(s);
+            state.addSystem(s);
+        }
+
+        int wireCount = in.getInt();
+        List<Wire> wires = new ArrayList<>(wireCount);
+        int[] destinations = new int[wireCount];
+        int[] occupants = new int[wireCount];
+        for (int i = 0; i < wireCount; i++) {
+            wires.add(new Wire(new Point(in.getInt(), in.getInt()), new Point(in.getInt(), in.getInt())));
+            destinations[i] = in.getInt();
+            occupants[i] = in.getInt();
+        }
+
+        int nextSpawn = in.getInt();
+        int spawnCount = in.getInt();
+        for (int i = 0; i < spawnCount; i++) {
+            long spawnTick = in.getLong();
+            SystemNode system = systems.get(in.getInt());
+            state.scheduleSpawn(spawnTick, system, Packet.Shape.values()[in.get()], in.getInt());
+        }
+        state.setNextSpawn(nextSpawn);
+
+        int contactCount = in.getInt();
+        for (int i = 0; i < contactCount; i++) {
+            state.getSweptCollider().restoreContact(in.getLong());
+        }
+
+        PacketStore packets = state.getPacketStore();
+        packets.readFrom(in, wires);
+
+        for (int i = 0; i < wireCount; i++) {
+            Wire w = wires.get(i);
+            state.registerWire(w, destinations[i] < 0 ? null : systems.get(destinations[i]));
+            if (occupants[i] >= 0) {
+                w.placePacket(packets.get(occupants[i]));
+            }
+        }
+        for (int i = 0; i < systemCount; i++) {
+            for (int slot : buffers[i]) {
+                systems.get(i).storePacket(packets.get(slot));
+            }
+        }
+
+        state.getMetrics().restore(spawned, delivered, lost);
+        state.restore(status, tick, topologyVersion, coins, wireLeft);
+        return state;
+    }
+
+    private static int[] readInts(MappedByteBuffer in, int count) {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = in.getInt();
+        }
+        return values;
+    }
+}
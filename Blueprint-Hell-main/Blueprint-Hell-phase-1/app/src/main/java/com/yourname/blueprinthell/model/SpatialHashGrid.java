@@ -0,0 +1,131 @@
+package com.yourname.blueprinthell.model;
+
+import java.util.Arrays;
+
+/**
+ * Uniform-grid broad phase for packet collisions.
+ * Every packet is hashed into a square cell as wide as the largest packet, so two packets
+ * can only touch if they sit in the same or neighbouring cells. The buckets are plain int
+ * arrays that are reused from tick to tick.
+ */
+class SpatialHashGrid {
+    private static final int EMPTY = -1;
+
+    private int[] head = new int[0];  // bucket -> first packet index in that bucket
+    private int[] next = new int[0];  // packet index -> next packet index in the same bucket
+    private int[] cellX = new int[0];
+    private int[] cellY = new int[0];
+    private int mask;
+
+    /** Same formula as Point.distance, so every collision mode agrees to the last bit. */
+    static double distance(double x1, double y1, double x2, double y2) {
+        double dx = x1 - x2;
+        double dy = y1 - y2;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /** Called for every pair of moving-list indices i &lt; j whose packets sit in the same or neighbouring cells. */
+    interface PairVisitor {
+        void visit(int i, int j);
+    }
+
+    /**
+     * Adds one point of noise to both packets of every overlapping pair of moving packets.
+     * Gives exactly the same result as testing all pairs.
+     */
+    void detectCollisions(PacketStore packets) {
+        int n = packets.movingCount;
+        if (n < 2) {
+            return;
+        }
+        int[] moving = packets.moving;
+        double[] x = packets.x;
+        double[] y = packets.y;
+        int[] size = packets.size;
+        double[] noise = packets.noise;
+
+        // The collision distance is (s1 + s2) / 2, which is never larger than the biggest size
+        int cellSize = 1;
+        for (int i = 0; i < n; i++) {
+            cellSize = Math.max(cellSize, size[moving[i]]);
+        }
+        build(packets, cellSize);
+
+        for (int i = 0; i < n; i++) {
+            int p1 = moving[i];
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    int cx = cellX[i] + dx;
+                    int cy = cellY[i] + dy;
+                    for (int j = head[bucketOf(cx, cy)]; j != EMPTY; j = next[j]) {
+                        // Each pair is handled once, from its lower index; different cells can share a bucket
+                        if (j <= i || cellX[j] != cx || cellY[j] != cy) {
+                            continue;
+                        }
+                        int p2 = moving[j];
+                        if (distance(x[p1], y[p1], x[p2], y[p2]) < (size[p1] / 2.0 + size[p2] / 2.0)) {
+                            noise[p1] += 1;
+                            noise[p2] += 1;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Visits every pair of moving packets that are less than cellSize apart along both axes,
+     * and some that are further; the visitor does the exact test.
+     */
+    void forEachNearbyPair(PacketStore packets, double cellSize, PairVisitor visitor) {
+        int n = packets.movingCount;
+        if (n < 2) {
+            return;
+        }
+        build(packets, cellSize);
+        for (int i = 0; i < n; i++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    int cx = cellX[i] + dx;
+                    int cy = cellY[i] + dy;
+                    for (int j = head[bucketOf(cx, cy)]; j != EMPTY; j = next[j]) {
+                        if (j > i && cellX[j] == cx && cellY[j] == cy) {
+                            visitor.visit(i, j);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // Hashes every moving packet into its cell
+    private void build(PacketStore packets, double cellSize) {
+        int n = packets.movingCount;
+        ensureCapacity(n);
+        int[] moving = packets.moving;
+        Arrays.fill(head, 0, mask + 1, EMPTY);
+        for (int i = 0; i < n; i++) {
+            int slot = moving[i];
+            cellX[i] = (int) Math.floor(packets.x[slot] / cellSize);
+            cellY[i] = (int) Math.floor(packets.y[slot] / cellSize);
+            int bucket = bucketOf(cellX[i], cellY[i]);
+            next[i] = head[bucket];
+            head[bucket] = i;
+        }
+    }
+
+    private int bucketOf(int cx, int cy) {
+        return ((cx * 73856093) ^ (cy * 19349663)) & mask;
+    }
+
+    private void ensureCapacity(int n) {
+        if (next.length < n) {
+            int capacity = Math.max(16, Integer.highestOneBit(n - 1) << 1);
+            next = new int[capacity];
+            cellX = new int[capacity];
+            cellY = new int[capacity];
+            head = new int[capacity * 2];
+            mask = head.length - 1;
+        }
+    }
+}
@@ -2,39 +2,46 @@ package com.yourname.blueprinthell.model;
 
 import java.awt.*;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
 
 public class SystemNode {
-    private Point location;
-    private Queue<Packet> buffer;
-    private int bufferCapacity = 5;
+    private final Point location;
+    public static final int DEFAULT_BUFFER_CAPACITY = 5;
+    private final PacketRingBuffer buffer;
 
     // --- NEW: Add lists for ports ---
-    private List<Point> inputPorts;
-    private List<Point> outputPorts;
+    // Built from the layout up front and final, so the view can read them from another thread
+    private final PortLayout portLayout;
+    private final List<Point> inputPorts;
+    private final List<Point> outputPorts;
     public static final int PORT_SIZE = 10; // Size of the port for drawing and clicking
+    public static final int BODY_SIZE = 40; // Width and height of the square body, centred on the location
+
+    // Wires leaving the output ports, in the order they were laid; maintained by GameState.addWire
+    private List<Wire> outgoingWires = new ArrayList<>();
+    private int freeOutgoingWires = 0;
+    private GameMetrics metrics; // Set when the node joins a GameState
+    private ReadySystems readySystems; // Likewise
+    private int index = -1; // Position in the GameState's system list
 
     public SystemNode(Point location) {
+        this(location, DEFAULT_BUFFER_CAPACITY);
+    }
+
+    public SystemNode(Point location, int bufferCapacity) {
+        this(location, bufferCapacity, PortLayout.DEFAULT);
+    }
+
+    public SystemNode(Point location, int bufferCapacity, PortLayout portLayout) {
         this.location = location;
-        this.buffer = new LinkedList<>();
-        
-        // --- NEW: Initialize port lists ---
-        this.inputPorts = new ArrayList<>();
-        this.outputPorts = new ArrayList<>();
-        
-        // --- NEW: Add some default ports for testing ---
-        // Add two input ports on the left side
-        inputPorts.add(new Point(location.x - 20, location.y - 10));
-        inputPorts.add(new Point(location.x - 20, location.y + 10));
-
-        // Add two output ports on the right side
-        outputPorts.add(new Point(location.x + 20, location.y - 10));
-        outputPorts.add(new Point(location.x + 20, location.y + 10));
+        this.buffer = new PacketRingBuffer(bufferCapacity);
+        this.portLayout = portLayout;
+        this.inputPorts = portLayout.inputsAt(location);
+        this.outputPorts = portLayout.outputsAt(location);
     }
 
     // --- NEW: Getters for the port lists ---
+    // The lists are immutable, so a node can be handed to the view while the simulation runs
     public List<Point> getInputPorts() {
         return inputPorts;
     }
@@ -43,18 +50,55 @@ public class SystemNode {
         return outputPorts;
     }
 
+    public PortLayout getPortLayout() {
+        return portLayout;
+    }
+
     public boolean canStorePacket() {
-        return buffer.size() < bufferCapacity;
+        return !buffer.isFull();
     }
 
     public void storePacket(Packet packet) {
         if (canStorePacket()) {
-            buffer.add(packet);
+            buffer.offer(packet);
+            if (metrics != null) {
+                metrics.bufferChanged(1);
+            }
+            markIfReady();
         }
     }
 
     public Packet releasePacket() {
-        return buffer.poll();
+        Packet packet = buffer.poll();
+        if (packet != null && metrics != null) {
+            metrics.bufferChanged(-1);
+        }
+        return packet;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    void setIndex(int index) {
+        this.index = index;
+    }
+
+    void attachMetrics(GameMetrics metrics) {
+        this.metrics = metrics;
+        metrics.bufferChanged(buffer.size());
+    }
+
+    void attachReadySystems(ReadySystems readySystems) {
+        this.readySystems = readySystems;
+        markIfReady();
+    }
+
+    // Puts the node on the ready list once it holds a packet and has a free wire to send it down
+    private void markIfReady() {
+        if (readySystems != null && buffer.size() > 0 && freeOutgoingWires > 0) {
+            readySystems.mark(index);
+        }
     }
 
     public Point getLocation() {
@@ -64,4 +108,58 @@ public class SystemNode {
     public int getBufferSize() {
         return buffer.size();
     }
+
+    public int getBufferCapacity() {
+        return buffer.capacity();
+    }
+
+    /** The packet at position i of the buffer, counted from the one that arrived first. */
+    public Packet getBufferedPacket(int i) {
+        return buffer.get(i);
+    }
+
+    public PacketRingBuffer.Policy getBufferPolicy() {
+        return buffer.getPolicy();
+    }
+
+    public void setBufferPolicy(PacketRingBuffer.Policy policy) {
+        buffer.setPolicy(policy);
+    }
+
+    public List<Wire> getOutgoingWires() {
+        return outgoingWires;
+    }
+
+    public int getFreeOutgoingWireCount() {
+        return freeOutgoingWires;
+    }
+
+    /** The earliest-laid outgoing wire that is not carrying a packet, or null. */
+    public Wire firstFreeOutgoingWire() {
+        if (freeOutgoingWires == 0) {
+            return null;
+        }
+        for (int i = 0; i < outgoingWires.size(); i++) {
+            Wire wire = outgoingWires.get(i);
+            if (!wire.isOccupied()) {
+                return wire;
+            }
+        }
+        return null;
+    }
+
+    void addOutgoingWire(Wire wire) {
+        outgoingWires.add(wire);
+        if (!wire.isOccupied()) {
+            freeOutgoingWires++;
+            markIfReady();
+        }
+    }
+
+    void changeFreeOutgoingWires(int change) {
+        freeOutgoingWires += change;
+        if (change > 0) {
+            markIfReady();
+        }
+    }
 }
\ No newline at end of file
@@ -1,27 +1,114 @@
 package com.yourname.blueprinthell.model;
 
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * A straight wire between two ports. Its geometry is worked out once, when the wire is made,
+ * so the end points must not be moved afterwards.
+ */
 public class Wire {
-    private Point start;
-    private Point end;
+    private final Point start;
+    private final Point end;
     private Packet occupyingPacket; // null if wire is free
+    private final List<SystemNode> sources = new ArrayList<>(1); // Systems with an output port at start
+    // Set by GameState when the wire runs through a system's body; volatile as the view reads it while the simulation runs
+    private volatile boolean crossesSystem = false;
+    private int index = -1; // Position in the GameState's wire list, once laid
+
+    // Precomputed geometry
+    private final double deltaX;
+    private final double deltaY;
+    private final double length;
+    private final double directionX; // Unit vector from start to end; zero for a zero-length wire
+    private final double directionY;
+    private final int minX;
+    private final int minY;
+    private final int maxX;
+    private final int maxY;
 
     public Wire(Point start, Point end) {
         this.start = start;
         this.end = end;
         this.occupyingPacket = null;
+        this.deltaX = end.x - start.x;
+        this.deltaY = end.y - start.y;
+        this.length = Math.sqrt(deltaX * deltaX + deltaY * deltaY); // Same bits as start.distance(end)
+        this.directionX = length == 0 ? 0 : deltaX / length;
+        this.directionY = length == 0 ? 0 : deltaY / length;
+        this.minX = Math.min(start.x, end.x);
+        this.minY = Math.min(start.y, end.y);
+        this.maxX = Math.max(start.x, end.x);
+        this.maxY = Math.max(start.y, end.y);
     }
 
     public Point getStart() { return start; }
     public Point getEnd() { return end; }
+    public double getDeltaX() { return deltaX; }
+    public double getDeltaY() { return deltaY; }
+    public double getDirectionX() { return directionX; }
+    public double getDirectionY() { return directionY; }
+
+    /** The smallest rectangle holding the whole wire; a new copy on every call. */
+    public Rectangle getBounds() {
+        return new Rectangle(minX, minY, maxX - minX, maxY - minY);
+    }
+
+    /** Whether the wire passes through the inside of a system's body; touching its edge doesn't count. */
+    public boolean crossesSystem() { return crossesSystem; }
+
+    public int getIndex() { return index; }
+
+    void setIndex(int index) {
+        this.index = index;
+    }
+
+    void markCrossesSystem() {
+        crossesSystem = true;
+    }
+
+    /**
+     * Whether the wire passes through the inside of the box. The part of the wire within the
+     * closed box is found by clipping; the box is crossed if the middle of that part is strictly inside.
+     */
+    boolean crossesBox(double boxMinX, double boxMinY, double boxMaxX, double boxMaxY) {
+        if (maxX <= boxMinX || minX >= boxMaxX || maxY <= boxMinY || minY >= boxMaxY) {
+            return false;
+        }
+        double[] p = { -deltaX, deltaX, -deltaY, deltaY };
+        double[] q = { start.x - boxMinX, boxMaxX - start.x, start.y - boxMinY, boxMaxY - start.y };
+        double t0 = 0.0;
+        double t1 = 1.0;
+        for (int i = 0; i < 4; i++) {
+            if (p[i] == 0) {
+                if (q[i] < 0) {
+                    return false; // Parallel to this side and outside it
+                }
+                continue;
+            }
+            double t = q[i] / p[i];
+            if (p[i] < 0) {
+                t0 = Math.max(t0, t);
+            } else {
+                t1 = Math.min(t1, t);
+            }
+            if (t0 > t1) {
+                return false;
+            }
+        }
+        double t = (t0 + t1) / 2;
+        double x = start.x + deltaX * t;
+        double y = start.y + deltaY * t;
+        return x > boxMinX && x < boxMaxX && y > boxMinY && y < boxMaxY;
+    }
 
     public boolean isOccupied() {
         return occupyingPacket != null;
     }
 
     public void placePacket(Packet p) {
-        this.occupyingPacket = p;
+        setOccupant(p);
     }
 
     public Packet getOccupyingPacket() {
@@ -29,10 +116,27 @@ public class Wire {
     }
 
     public void clearPacket() {
-        this.occupyingPacket = null;
+        setOccupant(null);
+    }
+
+    // Keeps the free-wire count of the source systems in step with the occupancy
+    private void setOccupant(Packet p) {
+        boolean wasFree = occupyingPacket == null;
+        this.occupyingPacket = p;
+        if (wasFree != (p == null)) {
+            int change = p == null ? 1 : -1;
+            for (int i = 0; i < sources.size(); i++) {
+                sources.get(i).changeFreeOutgoingWires(change);
+            }
+        }
+    }
+
+    void addSource(SystemNode node) {
+        sources.add(node);
+        node.addOutgoingWire(this);
     }
 
     public double getLength() {
-        return start.distance(end);
+        return length;
     }
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.yourname.blueprinthell.model;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Uniform-grid index over system bodies and wire segments, for checking where wires run.
+ * A system is filed under every cell its body covers and a wire under every cell its segment
+ * passes through. A check then only looks at the cells along one wire or under one body, so it
+ * costs the same on a board with ten wires as on one with ten thousand. Only occupied cells are
+ * stored, so huge sparse boards are cheap too.
+ */
+final class WiringIndex {
+    static final int CELL_SIZE = 64;
+
+    private final Map<Long, List<SystemNode>> systemCells = new HashMap<>();
+    private final Map<Long, List<Wire>> wireCells = new HashMap<>();
+
+    void addSystem(SystemNode s) {
+        Point c = s.getLocation();
+        int half = SystemNode.BODY_SIZE / 2;
+        for (int cx = cellOf(c.x - half); cx <= cellOf(c.x + half); cx++) {
+            for (int cy = cellOf(c.y - half); cy <= cellOf(c.y + half); cy++) {
+                systemCells.computeIfAbsent(GridCells.key(cx, cy), k -> new ArrayList<>(1)).add(s);
+            }
+        }
+    }
+
+    void addWire(Wire w) {
+        GridCells.forEachCell(w, CELL_SIZE, cell -> {
+            wireCells.computeIfAbsent(cell, k -> new ArrayList<>(2)).add(w);
+            return true;
+        });
+    }
+
+    /** The first indexed system whose body the wire passes through, or null if there is none. */
+    SystemNode findCrossedSystem(Wire w) {
+        SystemNode[] found = new SystemNode[1];
+        GridCells.forEachCell(w, CELL_SIZE, cell -> {
+            List<SystemNode> here = systemCells.get(cell);
+            if (here != null) {
+                for (SystemNode s : here) {
+                    if (crosses(w, s)) {
+                        found[0] = s;
+                        return false;
+                    }
+                }
+            }
+            return true;
+        });
+        return found[0];
+    }
+
+    /** The indexed wires that pass through the body of the system, each once. */
+    List<Wire> wiresThrough(SystemNode s) {
+        Point c = s.getLocation();
+        int half = SystemNode.BODY_SIZE / 2;
+        Set<Wire> found = null;
+        for (int cx = cellOf(c.x - half); cx <= cellOf(c.x + half); cx++) {
+            for (int cy = cellOf(c.y - half); cy <= cellOf(c.y + half); cy++) {
+                List<Wire> here = wireCells.get(GridCells.key(cx, cy));
+                if (here == null) {
+                    continue;
+                }
+                for (Wire w : here) {
+                    if (crosses(w, s)) {
+                        if (found == null) {
+                            found = Collections.newSetFromMap(new IdentityHashMap<>());
+                        }
+                        found.add(w);
+                    }
+                }
+            }
+        }
+        return found == null ? List.of() : new ArrayList<>(found);
+    }
+
+    static boolean crosses(Wire w, SystemNode s) {
+        Point c = s.getLocation();
+        double half = SystemNode.BODY_SIZE / 2.0;
+        return w.crossesBox(c.x - half, c.y - half, c.x + half, c.y + half);
+    }
+
+    private static int cellOf(int coordinate) {
+        return GridCells.cellOf(coordinate, CELL_SIZE);
+    }
+}
@@ -0,0 +1,101 @@
+package com.yourname.blueprinthell.replay;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A recorded game session: the level it was played on and every input, stamped with the tick it
+ * was applied before. The file is written by ReplayRecorder:
+ * <pre>
+ * int magic "BPRP", short version, UTF level name,
+ * then records: byte WIRE, long tick, int startX, startY, endX, endY, destination system index
+ *          or:  byte END, long final tick
+ * </pre>
+ * A file cut short (for example because the game was closed) is read up to its last whole record.
+ */
+public final class Replay {
+    static final int MAGIC = 0x42505250; // "BPRP"
+    static final short VERSION = 1;
+    static final byte END = 0;
+    static final byte WIRE = 1;
+
+    /** A wire the player laid from (startX, startY) to an input port of the destination system. */
+    public static final class WireEvent {
+        private final long tick;
+        private final int startX;
+        private final int startY;
+        private final int endX;
+        private final int endY;
+        private final int destination;
+
+        WireEvent(long tick, int startX, int startY, int endX, int endY, int destination) {
+            this.tick = tick;
+            this.startX = startX;
+            this.startY = startY;
+            this.endX = endX;
+            this.endY = endY;
+            this.destination = destination;
+        }
+
+        public long getTick() { return tick; }
+        public int getStartX() { return startX; }
+        public int getStartY() { return startY; }
+        public int getEndX() { return endX; }
+        public int getEndY() { return endY; }
+        public int getDestination() { return destination; }
+    }
+
+    private final String level;
+    private final List<WireEvent> events;
+    private final long endTick;
+
+    private Replay(String level, List<WireEvent> events, long endTick) {
+        this.level = level;
+        this.events = Collections.unmodifiableList(events);
+        this.endTick = endTick;
+    }
+
+    public String getLevel() { return level; }
+    public List<WireEvent> getEvents() { return events; }
+
+    /** The tick the session ended on, or -1 if the recording was cut short. */
+    public long getEndTick() { return endTick; }
+
+    public static Replay read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a replay file");
+            }
+            short version = in.readShort();
+            if (version != VERSION) {
+                throw new IOException(file + " has replay version " + version + ", expected " + VERSION);
+            }
+            String level = in.readUTF();
+            List<WireEvent> events = new ArrayList<>();
+            long endTick = -1;
+            try {
+                while (endTick < 0) {
+                    byte type = in.readByte();
+                    if (type == WIRE) {
+                        events.add(new WireEvent(in.readLong(), in.readInt(), in.readInt(),
+                                in.readInt(), in.readInt(), in.readInt()));
+                    } else if (type == END) {
+                        endTick = in.readLong();
+                    } else {
+                        throw new IOException(file + " has an unknown record type " + type);
+                    }
+                }
+            } catch (EOFException e) {
+                // Cut short: keep the whole records read so far
+            }
+            return new Replay(level, events, endTick);
+        }
+    }
+}
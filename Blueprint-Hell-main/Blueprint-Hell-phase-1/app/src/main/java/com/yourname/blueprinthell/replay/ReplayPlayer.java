@@ -0,0 +1,45 @@
+package com.yourname.blueprinthell.replay;
+
+import com.yourname.blueprinthell.model.GameState;
+import com.yourname.blueprinthell.model.SystemNode;
+import java.awt.Point;
+import java.util.List;
+
+/**
+ * Re-runs a recorded session through GameState.runUntil() as fast as possible.
+ * Inputs are applied before the same tick they were applied before in the original session,
+ * so the outcome is identical.
+ */
+public final class ReplayPlayer {
+
+    private ReplayPlayer() { }
+
+    /**
+     * Plays the replay on a fresh state of its level until the recorded end tick, the end of the
+     * game, or maxTicks, whichever comes first.
+     */
+    public static void play(GameState state, Replay replay, long maxTicks) {
+        long stopTick = replay.getEndTick() >= 0 ? Math.min(replay.getEndTick(), maxTicks) : maxTicks;
+        List<Replay.WireEvent> events = replay.getEvents();
+        int next = 0;
+        while (state.getCurrentStatus() == GameState.GameStatus.RUNNING) {
+            while (next < events.size() && events.get(next).getTick() <= state.getTick()) {
+                apply(state, events.get(next++));
+            }
+            if (state.getTick() >= stopTick) {
+                break;
+            }
+            state.runUntil(next < events.size() ? Math.min(events.get(next).getTick(), stopTick) : stopTick);
+        }
+    }
+
+    private static void apply(GameState state, Replay.WireEvent event) {
+        List<SystemNode> systems = state.getSystems();
+        if (event.getDestination() < 0 || event.getDestination() >= systems.size()) {
+            throw new IllegalStateException("Replay refers to system " + event.getDestination()
+                    + " but the level has only " + systems.size());
+        }
+        state.connect(new Point(event.getStartX(), event.getStartY()), new Point(event.getEndX(), event.getEndY()),
+                systems.get(event.getDestination()));
+    }
+}
@@ -0,0 +1,78 @@
+package com.yourname.blueprinthell.replay;
+
+import java.awt.Point;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes a Replay file while a session is played. Records are written on the simulation thread,
+ * as each input is applied. If the file cannot be written the recorder reports it once and stops,
+ * so a full disk never takes the game down.
+ */
+public final class ReplayRecorder implements Closeable {
+    private final Path file;
+    private DataOutputStream out;
+
+    public ReplayRecorder(Path file, String level) throws IOException {
+        this.file = file;
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        out.writeInt(Replay.MAGIC);
+        out.writeShort(Replay.VERSION);
+        out.writeUTF(level);
+        out.flush();
+    }
+
+    public void recordWire(long tick, Point start, Point end, int destination) {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.writeByte(Replay.WIRE);
+            out.writeLong(tick);
+            out.writeInt(start.x);
+            out.writeInt(start.y);
+            out.writeInt(end.x);
+            out.writeInt(end.y);
+            out.writeInt(destination);
+            out.flush(); // Inputs are rare; keep the file usable if the game is killed
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /** Marks the tick the session ended on and closes the file. */
+    public void finish(long endTick) {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.writeByte(Replay.END);
+            out.writeLong(endTick);
+        } catch (IOException e) {
+            fail(e);
+        }
+        close();
+    }
+
+    @Override
+    public void close() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            System.err.println("Could not close replay " + file + ": " + e.getMessage());
+        }
+        out = null;
+    }
+
+    private void fail(IOException e) {
+        System.err.println("Stopped recording replay " + file + ": " + e.getMessage());
+        close();
+    }
+}
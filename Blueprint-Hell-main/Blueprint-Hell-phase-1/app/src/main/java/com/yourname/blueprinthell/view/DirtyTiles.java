@@ -0,0 +1,137 @@
+package com.yourname.blueprinthell.view;
+
+import com.yourname.blueprinthell.controller.Camera;
+import com.yourname.blueprinthell.model.GameSnapshot;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+
+/**
+ * The screen tiles packets have moved through, marked on the simulation thread and painted on
+ * the EDT. Swing merges every repaint() of a component into one bounding rectangle, so two packets
+ * in opposite corners would repaint the whole panel; here each block of dirty tiles is painted on
+ * its own with paintImmediately(). Marks made before the EDT gets round to painting are merged.
+ */
+final class DirtyTiles {
+    private static final int TILE_SIZE = 64;
+    private static final int MARGIN = 2; // Covers anti-aliasing around the packet shapes
+    private static final int FULL_REPAINT_PERCENT = 50; // Dirtier than this, the whole panel is repainted
+
+    private final JComponent panel;
+    // Guarded by this
+    private boolean[] dirty = new boolean[0];
+    private int columns;
+    private int rows;
+    private int dirtyCount;
+    private boolean scheduled;
+
+    DirtyTiles(JComponent panel) {
+        this.panel = panel;
+    }
+
+    /** Marks the screen tiles under the packets of the snapshot, as seen through the camera. */
+    synchronized void markPackets(GameSnapshot snapshot, Camera camera) {
+        resize(panel.getWidth(), panel.getHeight());
+        for (int i = 0; i < snapshot.getPacketTileCount(); i++) {
+            double worldX = (double) snapshot.getPacketTileX(i) * GameSnapshot.TILE_SIZE;
+            double worldY = (double) snapshot.getPacketTileY(i) * GameSnapshot.TILE_SIZE;
+            int left = camera.toScreenX(worldX) - MARGIN;
+            int top = camera.toScreenY(worldY) - MARGIN;
+            int right = camera.toScreenX(worldX + GameSnapshot.TILE_SIZE) + MARGIN;
+            int bottom = camera.toScreenY(worldY + GameSnapshot.TILE_SIZE) + MARGIN;
+            mark(left, top, right, bottom);
+        }
+    }
+
+    /** Has the EDT paint everything marked so far, unless a paint is already on its way. */
+    synchronized void flush() {
+        if (dirtyCount == 0 || scheduled) {
+            return;
+        }
+        scheduled = true;
+        SwingUtilities.invokeLater(this::paint);
+    }
+
+    private void mark(int left, int top, int right, int bottom) {
+        int minCol = Math.max(0, Math.floorDiv(left, TILE_SIZE));
+        int minRow = Math.max(0, Math.floorDiv(top, TILE_SIZE));
+        int maxCol = Math.min(columns - 1, Math.floorDiv(right, TILE_SIZE));
+        int maxRow = Math.min(rows - 1, Math.floorDiv(bottom, TILE_SIZE));
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                if (!dirty[row * columns + col]) {
+                    dirty[row * columns + col] = true;
+                    dirtyCount++;
+                }
+            }
+        }
+    }
+
+    // A resized panel is repainted whole by Swing, so marks made for the old size can go
+    private void resize(int width, int height) {
+        int newColumns = (width + TILE_SIZE - 1) / TILE_SIZE;
+        int newRows = (height + TILE_SIZE - 1) / TILE_SIZE;
+        if (newColumns != columns || newRows != rows) {
+            columns = newColumns;
+            rows = newRows;
+            dirty = new boolean[columns * rows];
+            dirtyCount = 0;
+        }
+    }
+
+    // On the EDT: joins each row's runs of dirty tiles, stacks equal runs of neighbouring rows,
+    // and paints the resulting rectangles
+    private void paint() {
+        List<Rectangle> blocks = new ArrayList<>();
+        synchronized (this) {
+            scheduled = false;
+            if (dirtyCount * 100 > FULL_REPAINT_PERCENT * dirty.length) {
+                clear();
+                panel.repaint();
+                return;
+            }
+            List<Rectangle> open = new ArrayList<>(); // Blocks that reach the row above
+            for (int row = 0; row < rows; row++) {
+                List<Rectangle> stillOpen = new ArrayList<>();
+                for (int col = 0; col < columns; col++) {
+                    if (!dirty[row * columns + col]) {
+                        continue;
+                    }
+                    int start = col;
+                    while (col + 1 < columns && dirty[row * columns + col + 1]) {
+                        col++;
+                    }
+                    Rectangle run = new Rectangle(start * TILE_SIZE, row * TILE_SIZE, (col - start + 1) * TILE_SIZE, TILE_SIZE);
+                    Rectangle above = null;
+                    for (Rectangle r : open) {
+                        if (r.x == run.x && r.width == run.width) {
+                            above = r;
+                            break;
+                        }
+                    }
+                    if (above != null) {
+                        open.remove(above);
+                        above.height += TILE_SIZE;
+                        stillOpen.add(above);
+                    } else {
+                        blocks.add(run);
+                        stillOpen.add(run);
+                    }
+                }
+                open = stillOpen;
+            }
+            clear();
+        }
+        for (Rectangle block : blocks) {
+            panel.paintImmediately(block);
+        }
+    }
+
+    private void clear() {
+        Arrays.fill(dirty, false);
+        dirtyCount = 0;
+    }
+}
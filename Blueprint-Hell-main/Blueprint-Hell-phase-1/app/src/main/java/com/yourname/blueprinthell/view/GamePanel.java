@@ -1,21 +1,67 @@
 package com.yourname.blueprinthell.view;
 
+import com.yourname.blueprinthell.controller.Camera;
 import com.yourname.blueprinthell.controller.GameController; // NEW Import
+import com.yourname.blueprinthell.controller.SimulationLoop;
+import com.yourname.blueprinthell.instrument.FlowStats;
+import com.yourname.blueprinthell.instrument.LatencyHistogram;
+import com.yourname.blueprinthell.instrument.Phase;
+import com.yourname.blueprinthell.instrument.TickProfiler;
+import com.yourname.blueprinthell.level.Levels;
 import com.yourname.blueprinthell.model.*;
+import com.yourname.blueprinthell.replay.ReplayRecorder;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
-public class GamePanel extends JPanel implements ActionListener {
-    private GameState gameState;
-    private Timer timer;
+public class GamePanel extends JPanel {
+    // Drawing resources are created once instead of on every paint
+    private static final Font HUD_FONT = new Font("Monospaced", Font.BOLD, 16);
+    private static final Font BANNER_FONT = new Font("Monospaced", Font.BOLD, 50);
+    private static final BasicStroke WIRE_STROKE = new BasicStroke(3);
+    private static final BasicStroke THIN_WIRE_STROKE = new BasicStroke(0); // One pixel at any zoom
+    private static final double DETAIL_SCALE = 0.5; // Zoomed out further, ports are left out and wires are thin
+    private static final Color WIRE_COLOR = Color.decode("#555577");
+    private static final Color CROSSING_WIRE_COLOR = Color.decode("#AA3333"); // Runs through a system
+    private static final Color OVERLAY_COLOR = new Color(0, 0, 0, 150);
+    private static final Rectangle HUD_BOUNDS = new Rectangle(15, 10, 260, 90);
+    // Set to a directory to record every session there, e.g. -Dblueprinthell.replayDir=replays
+    private static final String REPLAY_DIR_PROPERTY = "blueprinthell.replayDir";
+    private static final Rectangle DEBUG_BOUNDS = new Rectangle(15, 110, 470, 175);
+    private static final Rectangle FLOW_BOUNDS = new Rectangle(15, 295, 470, 205);
+    private static final Font DEBUG_FONT = new Font("Monospaced", Font.PLAIN, 12);
+    private static final Color DEBUG_BACKGROUND = new Color(0, 0, 0, 180);
+    private static final Path SAVE_FILE = Paths.get(System.getProperty("user.home"), ".blueprinthell.sav");
+
+    private SimulationLoop simulation; // Owns the GameState; the panel only draws its snapshots
     private GameController gameController; // NEW reference to the controller
+    private GameSnapshot lastPublished; // Used on the simulation thread; startGame resets it while none is running
+    private ReplayRecorder recorder; // Written on the simulation thread; null when not recording
+    private volatile TickProfiler profiler; // Non-null while the debug overlay (F3) is shown
+    private volatile FlowStats flowStats; // Non-null while the flow overlay (F5) is shown
+
+    // Wires, systems and ports in view, redrawn only when the topology or the camera changes
+    private BufferedImage staticLayer;
+    private int staticLayerVersion = -1;
+    private Camera staticLayerCamera;
+    private SceneIndex sceneIndex = new SceneIndex(); // Of the board being shown
+    private final PacketRenderer packetRenderer = new PacketRenderer();
+    private final DirtyTiles dirtyTiles = new DirtyTiles(this);
 
     private CardLayout cardLayout;
     private JPanel mainPanel;
     
     // UI Buttons
     private JButton resumeButton;
+    private JButton saveButton;
     private JButton menuButton;
     private JButton pauseButton;
     private JButton shopButton;
@@ -28,82 +74,240 @@ public class GamePanel extends JPanel implements ActionListener {
         setBackground(Color.BLACK);
         setFocusable(true);
         
-        this.timer = new Timer(1000 / 60, this);
         resetGame(); // Initialize game state and controller
 
         setupUIButtons();
+        setupDebugKeys();
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                layoutButtons();
+            }
+        });
         
         addFocusListener(new FocusAdapter() {
             @Override
             public void focusGained(FocusEvent e) {
-                if (gameState.getCurrentStatus() != GameState.GameStatus.GAME_OVER && gameState.getCurrentStatus() != GameState.GameStatus.WIN) {
-                    timer.start();
+                if (!simulation.getSnapshot().isFinished()) {
+                    simulation.start();
                 }
             }
         });
     }
     
     public final void resetGame() {
-        this.gameState = new GameState();
-        // --- NEW: Add systems for a fresh game ---
-        gameState.addSystem(new SystemNode(new Point(100, 150)));
-        gameState.addSystem(new SystemNode(new Point(400, 150)));
-        gameState.addSystem(new SystemNode(new Point(100, 400)));
-        gameState.addSystem(new SystemNode(new Point(400, 400)));
+        startGame(Levels.createDefault(), Levels.DEFAULT);
+    }
+
+    /** Starts the named level; see Levels.create() for what a name can be. */
+    public void startLevel(String level) {
+        startGame(Levels.create(level), level);
+    }
+
+    /** Resumes the saved game; returns false (and keeps the current game) if it can't be read. */
+    public boolean loadGame() {
+        GameState gameState;
+        try {
+            gameState = SaveFile.load(SAVE_FILE);
+        } catch (IOException e) {
+            System.err.println("Could not load " + SAVE_FILE + ": " + e.getMessage());
+            return false;
+        }
+        gameState.resumeGame(); // Games are saved from the pause menu
+        startGame(gameState, null); // A loaded game has no level to replay from
+        return true;
+    }
+
+    private void saveGame() {
+        // Written on the simulation thread, which owns the state
+        simulation.submit(gameState -> {
+            try {
+                SaveFile.save(gameState, SAVE_FILE);
+            } catch (IOException e) {
+                System.err.println("Could not save to " + SAVE_FILE + ": " + e.getMessage());
+            }
+        });
+    }
+
+    private void startGame(GameState gameState, String level) {
+        if (simulation != null) {
+            simulation.stop();
+            if (recorder != null) {
+                recorder.finish(simulation.getSnapshot().getTick());
+            }
+        }
         
+        // The simulation thread asks for a repaint every time it publishes a snapshot
+        this.simulation = new SimulationLoop(gameState, this::onSnapshotPublished);
+        this.lastPublished = null;
+        this.staticLayer = null;
+        this.sceneIndex = new SceneIndex();
+        this.recorder = level == null ? null : createRecorder(level);
+        gameState.setCrossingRule(GameState.CrossingRule.REJECT); // The player can't wire through a system
+        if (profiler != null) {
+            profiler = new TickProfiler(); // Timings of the old board mean nothing for the new one
+            gameState.setProfiler(profiler);
+        }
+        if (flowStats != null) {
+            flowStats = new FlowStats(); // Indexes of the old board mean nothing for the new one
+            gameState.setFlowStats(flowStats);
+        }
+
         // --- NEW: Create the controller ---
-        this.gameController = new GameController(this.gameState, this, this.timer);
+        this.gameController = new GameController(this, this.simulation, this.recorder);
         
-        if (!timer.isRunning()) {
-            timer.start();
-        }
+        simulation.start();
         
         if(shopButton != null) { // Null check for first-time setup
             shopButton.setVisible(true);
             pauseButton.setVisible(true);
             resumeButton.setVisible(false);
+            saveButton.setVisible(false);
             menuButton.setVisible(false);
         }
         
         requestFocusInWindow();
     }
 
+    private static ReplayRecorder createRecorder(String level) {
+        String dir = System.getProperty(REPLAY_DIR_PROPERTY);
+        if (dir == null) {
+            return null;
+        }
+        try {
+            Path directory = Files.createDirectories(Paths.get(dir));
+            return new ReplayRecorder(directory.resolve("session-" + System.currentTimeMillis() + ".bprp"), level);
+        } catch (IOException e) {
+            System.err.println("Not recording this session: " + e.getMessage());
+            return null;
+        }
+    }
+
     private void setupUIButtons() {
         pauseButton = new JButton("Pause");
-        pauseButton.setBounds(880, 20, 100, 30); 
         pauseButton.addActionListener(e -> togglePause());
         add(pauseButton);
         
         shopButton = new JButton("Shop");
-        shopButton.setBounds(770, 20, 100, 30);
         shopButton.addActionListener(e -> pauseAndGoTo("shop"));
         add(shopButton);
 
         resumeButton = new JButton("Resume");
+        saveButton = new JButton("Save");
         menuButton = new JButton("Main Menu");
-        resumeButton.setBounds(400, 300, 200, 50);
-        menuButton.setBounds(400, 360, 200, 50);
         resumeButton.addActionListener(e -> togglePause());
+        saveButton.addActionListener(e -> saveGame());
         menuButton.addActionListener(e -> cardLayout.show(mainPanel, "menu"));
         add(resumeButton);
+        add(saveButton);
         add(menuButton);
 
         resumeButton.setVisible(false);
+        saveButton.setVisible(false);
         menuButton.setVisible(false);
+        layoutButtons();
+    }
+
+    // The window can be resized: the game buttons stay top right and the pause menu centred
+    private void layoutButtons() {
+        int width = getWidth() > 0 ? getWidth() : 1000;
+        int height = getHeight() > 0 ? getHeight() : 700;
+        pauseButton.setBounds(width - 120, 20, 100, 30);
+        shopButton.setBounds(width - 230, 20, 100, 30);
+        resumeButton.setBounds(width / 2 - 100, height / 2 - 50, 200, 50);
+        saveButton.setBounds(width / 2 - 100, height / 2 + 10, 200, 50);
+        menuButton.setBounds(width / 2 - 100, height / 2 + 70, 200, 50);
     }
     
+    // F3 shows the timing overlay and starts profiling, F4 writes the timings to profile-<time>.csv/.json.
+    // F5 and F6 do the same for the packet flow, writing flow-<time>.csv
+    private void setupDebugKeys() {
+        InputMap keys = getInputMap(WHEN_IN_FOCUSED_WINDOW);
+        keys.put(KeyStroke.getKeyStroke(KeyEvent.VK_F3, 0), "toggleDebug");
+        keys.put(KeyStroke.getKeyStroke(KeyEvent.VK_F4, 0), "dumpProfile");
+        keys.put(KeyStroke.getKeyStroke(KeyEvent.VK_F5, 0), "toggleFlow");
+        keys.put(KeyStroke.getKeyStroke(KeyEvent.VK_F6, 0), "dumpFlow");
+        getActionMap().put("toggleDebug", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                toggleDebugOverlay();
+            }
+        });
+        getActionMap().put("dumpProfile", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                dumpProfile();
+            }
+        });
+        getActionMap().put("toggleFlow", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                toggleFlowOverlay();
+            }
+        });
+        getActionMap().put("dumpFlow", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                dumpFlow();
+            }
+        });
+    }
+
+    private void toggleDebugOverlay() {
+        TickProfiler next = profiler == null ? new TickProfiler() : null;
+        profiler = next;
+        simulation.submit(gameState -> gameState.setProfiler(next));
+        repaint();
+    }
+
+    private void dumpProfile() {
+        TickProfiler current = profiler;
+        if (current == null) {
+            return;
+        }
+        String base = "profile-" + System.currentTimeMillis();
+        try (Writer csv = Files.newBufferedWriter(Paths.get(base + ".csv"));
+             Writer json = Files.newBufferedWriter(Paths.get(base + ".json"))) {
+            current.writeCsv(csv);
+            current.writeJson(json);
+        } catch (IOException e) {
+            System.err.println("Could not write " + base + ": " + e.getMessage());
+        }
+    }
+
+    private void toggleFlowOverlay() {
+        FlowStats next = flowStats == null ? new FlowStats() : null;
+        flowStats = next;
+        simulation.submit(gameState -> gameState.setFlowStats(next));
+        repaint();
+    }
+
+    private void dumpFlow() {
+        FlowStats current = flowStats;
+        if (current == null) {
+            return;
+        }
+        Path file = Paths.get("flow-" + System.currentTimeMillis() + ".csv");
+        try (Writer csv = Files.newBufferedWriter(file)) {
+            current.writeCsv(csv);
+        } catch (IOException e) {
+            System.err.println("Could not write " + file + ": " + e.getMessage());
+        }
+    }
+
     private void togglePause() {
-        if (gameState.getCurrentStatus() == GameState.GameStatus.RUNNING) {
-            gameState.pauseGame();
-            timer.stop();
+        GameState.GameStatus status = simulation.getSnapshot().getStatus();
+        if (status == GameState.GameStatus.RUNNING) {
+            simulation.submit(GameState::pauseGame);
             resumeButton.setVisible(true);
+            saveButton.setVisible(true);
             menuButton.setVisible(true);
             pauseButton.setVisible(false);
             shopButton.setVisible(false);
-        } else if (gameState.getCurrentStatus() == GameState.GameStatus.PAUSED) {
-            gameState.resumeGame();
-            timer.start();
+        } else if (status == GameState.GameStatus.PAUSED) {
+            simulation.submit(GameState::resumeGame);
             resumeButton.setVisible(false);
+            saveButton.setVisible(false);
             menuButton.setVisible(false);
             pauseButton.setVisible(true);
             shopButton.setVisible(true);
@@ -112,40 +316,195 @@ public class GamePanel extends JPanel implements ActionListener {
     }
 
     private void pauseAndGoTo(String panelName) {
-        if (gameState.getCurrentStatus() == GameState.GameStatus.RUNNING) {
-            timer.stop();
+        if (simulation.getSnapshot().getStatus() == GameState.GameStatus.RUNNING) {
+            simulation.stop();
             cardLayout.show(mainPanel, panelName);
         }
     }
 
-    @Override
-    public void actionPerformed(ActionEvent e) {
-        if (gameState.getCurrentStatus() == GameState.GameStatus.RUNNING) {
-            gameState.update();
+    /**
+     * Runs on the simulation thread after each publish and repaints only what changed:
+     * the tiles where packets were, the tiles where they are now, and the HUD. Each paint may
+     * cover only part of the panel, so paintComponent must stay within its clip.
+     */
+    private void onSnapshotPublished() {
+        GameSnapshot current = simulation.getSnapshot();
+        GameSnapshot previous = lastPublished;
+        lastPublished = current;
+        if (recorder != null && current.isFinished()) {
+            recorder.finish(current.getTick());
         }
-        if (gameState.getCurrentStatus() == GameState.GameStatus.GAME_OVER || gameState.getCurrentStatus() == GameState.GameStatus.WIN) {
-            timer.stop();
+        if (previous == null || previous.getStatus() != current.getStatus()
+                || previous.getTopologyVersion() != current.getTopologyVersion()) {
+            repaint();
+            return;
+        }
+        Camera camera = gameController.getCamera();
+        dirtyTiles.markPackets(previous, camera);
+        dirtyTiles.markPackets(current, camera);
+        dirtyTiles.flush();
+        if (profiler != null) {
+            repaint(DEBUG_BOUNDS);
+        }
+        if (flowStats != null) {
+            repaint(FLOW_BOUNDS);
+        }
+        if (previous.getPacketLoss() != current.getPacketLoss() || previous.getCoins() != current.getCoins()
+                || previous.getPacketsDelivered() != current.getPacketsDelivered()
+                || previous.getRemainingWireLength() != current.getRemainingWireLength()) {
+            repaint(HUD_BOUNDS);
         }
-        repaint();
     }
-    
-    private void drawHUD(Graphics2D g2) {
-        g2.setFont(new Font("Monospaced", Font.BOLD, 16));
+
+    private BufferedImage getStaticLayer(GameSnapshot snapshot, Camera camera) {
+        if (staticLayer != null && staticLayerVersion == snapshot.getTopologyVersion() && staticLayerCamera == camera
+                && staticLayer.getWidth() == getWidth() && staticLayer.getHeight() == getHeight()) {
+            return staticLayer;
+        }
+        int width = Math.max(1, getWidth());
+        int height = Math.max(1, getHeight());
+        if (staticLayer == null || staticLayer.getWidth() != width || staticLayer.getHeight() != height) {
+            GraphicsConfiguration gc = getGraphicsConfiguration();
+            staticLayer = gc != null ? gc.createCompatibleImage(width, height) : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+        staticLayerVersion = snapshot.getTopologyVersion();
+        staticLayerCamera = camera;
+
+        Graphics2D g2 = staticLayer.createGraphics();
+        g2.setColor(getBackground());
+        g2.fillRect(0, 0, staticLayer.getWidth(), staticLayer.getHeight());
+
+        // Only what the camera sees is drawn, so the cost follows the view and not the board
+        sceneIndex.update(snapshot.getSystems(), snapshot.getWires());
+        Rectangle visible = camera.visibleWorld(width, height);
+        visible.grow(2, 2); // Wires are drawn 3 pixels wide, so one just outside can still show
+        List<Wire> wires = new ArrayList<>();
+        sceneIndex.wiresIn(visible, wires);
+        List<SystemNode> systems = new ArrayList<>();
+        sceneIndex.systemsIn(visible, systems);
+
+        boolean detailed = camera.getScale() >= DETAIL_SCALE;
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                detailed ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+        g2.transform(camera.getTransform());
+
+        g2.setStroke(detailed ? WIRE_STROKE : THIN_WIRE_STROKE);
+        for (Wire w : wires) {
+            g2.setColor(w.crossesSystem() ? CROSSING_WIRE_COLOR : WIRE_COLOR);
+            g2.drawLine(w.getStart().x, w.getStart().y, w.getEnd().x, w.getEnd().y);
+        }
+
+        for (SystemNode s : systems) {
+            Point loc = s.getLocation();
+            int w = SystemNode.BODY_SIZE, h = SystemNode.BODY_SIZE;
+            g2.setColor(Color.LIGHT_GRAY);
+            g2.fillRect(loc.x - w / 2, loc.y - h / 2, w, h);
+            if (!detailed) {
+                continue;
+            }
+            g2.setColor(Color.BLUE);
+            for (Point p : s.getInputPorts()) {
+                g2.fillRect(p.x - SystemNode.PORT_SIZE / 2, p.y - SystemNode.PORT_SIZE / 2, SystemNode.PORT_SIZE, SystemNode.PORT_SIZE);
+            }
+            g2.setColor(Color.ORANGE);
+            for (Point p : s.getOutputPorts()) {
+                g2.fillRect(p.x - SystemNode.PORT_SIZE / 2, p.y - SystemNode.PORT_SIZE / 2, SystemNode.PORT_SIZE, SystemNode.PORT_SIZE);
+            }
+        }
+        g2.dispose();
+        return staticLayer;
+    }
+
+    private void drawHUD(Graphics2D g2, GameSnapshot snapshot) {
+        g2.setFont(HUD_FONT);
         g2.setColor(Color.WHITE);
-        String wireInfo = String.format("Wire Length: %.0f", gameState.getRemainingWireLength());
-        String lossInfo = "Packet Loss: " + gameState.getPacketLoss();
-        String coinsInfo = "Coins: " + gameState.getCoins();
-        String deliveredInfo = "Delivered: " + gameState.getPacketsDelivered() + "/10";
+        String wireInfo = String.format("Wire Length: %.0f", snapshot.getRemainingWireLength());
+        String lossInfo = "Packet Loss: " + snapshot.getPacketLoss();
+        String coinsInfo = "Coins: " + snapshot.getCoins();
+        String deliveredInfo = "Delivered: " + snapshot.getPacketsDelivered() + "/10";
         g2.drawString(wireInfo, 20, 30);
         g2.drawString(lossInfo, 20, 50);
         g2.drawString(coinsInfo, 20, 70);
         g2.drawString(deliveredInfo, 20, 90);
     }
 
+    private void drawDebugOverlay(Graphics2D g2, TickProfiler p) {
+        g2.setColor(DEBUG_BACKGROUND);
+        g2.fillRect(DEBUG_BOUNDS.x, DEBUG_BOUNDS.y, DEBUG_BOUNDS.width, DEBUG_BOUNDS.height);
+        g2.setFont(DEBUG_FONT);
+        g2.setColor(Color.GREEN);
+        int x = DEBUG_BOUNDS.x + 5;
+        int y = DEBUG_BOUNDS.y + 15;
+        g2.drawString(String.format("%-10s %8s %8s %8s %8s", "phase (us)", "mean", "p50", "p99", "max"), x, y);
+        for (Phase phase : Phase.values()) {
+            LatencyHistogram h = p.getHistogram(phase);
+            y += 15;
+            g2.drawString(String.format("%-10s %8.1f %8.1f %8.1f %8.1f", phase, h.getMean() / 1e3,
+                    h.getPercentile(50) / 1e3, h.getPercentile(99) / 1e3, h.getMax() / 1e3), x, y);
+        }
+        y += 20;
+        g2.drawString(String.format("packets %d moving / %d live, wires %d, systems %d",
+                p.getMovingPackets(), p.getLivePackets(), p.getWires(), p.getSystems()), x, y);
+        y += 15;
+        g2.drawString("F3 hide, F4 dump to profile-*.csv/json", x, y);
+    }
+
+    // The window's totals, then the systems that drop most and the wires that are busiest
+    private void drawFlowOverlay(Graphics2D g2, FlowStats f, GameSnapshot snapshot) {
+        g2.setColor(DEBUG_BACKGROUND);
+        g2.fillRect(FLOW_BOUNDS.x, FLOW_BOUNDS.y, FLOW_BOUNDS.width, FLOW_BOUNDS.height);
+        g2.setFont(DEBUG_FONT);
+        g2.setColor(Color.CYAN);
+        int x = FLOW_BOUNDS.x + 5;
+        int y = FLOW_BOUNDS.y + 15;
+        FlowStats.Summary summary = f.getSummary(); // Summed once per slice, not once per frame
+        if (summary == null) {
+            g2.drawString(String.format("collecting, first figures after %.0f s",
+                    (double) FlowStats.DEFAULT_SLICE_TICKS / SimulationLoop.TICKS_PER_SECOND), x, y);
+            g2.drawString("F5 hide, F6 export to flow-*.csv", x, y + 20);
+            return;
+        }
+        double seconds = (double) summary.getWindowTicks() / SimulationLoop.TICKS_PER_SECOND;
+        g2.drawString(String.format("last %.0f s: %d delivered (%.1f/s), %d lost", seconds, summary.getDelivered(),
+                seconds == 0 ? 0.0 : summary.getDelivered() / seconds, summary.getLost()), x, y);
+        y += 15;
+        g2.drawString(String.format("%-14s %8s %8s %8s", "time (s)", "p50", "p99", "max"), x, y);
+        y = drawTicks(g2, "spawn->deliver", summary.getDeliveryAge(), x, y + 15);
+        y = drawTicks(g2, "wire", summary.getHopTime(), x, y);
+        y = drawTicks(g2, "buffer wait", summary.getQueueWait(), x, y);
+
+        List<SystemNode> systems = snapshot.getSystems();
+        y += 5;
+        g2.drawString("systems dropping most:", x, y);
+        for (int i = 0; i < summary.getSystemCount(); i++) {
+            int s = summary.getSystem(i);
+            String capacity = s < systems.size() ? String.valueOf(systems.get(s).getBufferCapacity()) : "?";
+            y += 15;
+            g2.drawString(String.format("  #%-5d drop %3.0f%%  buffer %.1f/%s  wait %.2f s", s, summary.getDropRate(i) * 100,
+                    summary.getMeanOccupancy(i), capacity, summary.getMeanWait(i) / SimulationLoop.TICKS_PER_SECOND), x, y);
+        }
+        y += 20;
+        g2.drawString("busiest wires:", x, y);
+        for (int i = 0; i < summary.getWireCount(); i++) {
+            y += 15;
+            g2.drawString(String.format("  #%-5d busy %3.0f%%  carried %d  lost %d", summary.getWire(i),
+                    summary.getUtilization(i) * 100, summary.getCarried(i), summary.getWireLost(i)), x, y);
+        }
+        y += 20;
+        g2.drawString("F5 hide, F6 export to flow-*.csv", x, y);
+    }
+
+    private static int drawTicks(Graphics2D g2, String label, LatencyHistogram h, int x, int y) {
+        double tps = SimulationLoop.TICKS_PER_SECOND;
+        g2.drawString(String.format("%-14s %8.2f %8.2f %8.2f", label, h.getPercentile(50) / tps,
+                h.getPercentile(99) / tps, h.getMax() / tps), x, y);
+        return y + 15;
+    }
+
     private void drawGameOver(Graphics2D g2) {
-        g2.setColor(new Color(0, 0, 0, 150));
+        g2.setColor(OVERLAY_COLOR);
         g2.fillRect(0, 0, getWidth(), getHeight());
-        g2.setFont(new Font("Monospaced", Font.BOLD, 50));
+        g2.setFont(BANNER_FONT);
         g2.setColor(Color.RED);
         String msg = "GAME OVER";
         FontMetrics fm = g2.getFontMetrics();
@@ -153,9 +512,9 @@ public class GamePanel extends JPanel implements ActionListener {
     }
     
     private void drawWinScreen(Graphics2D g2) {
-        g2.setColor(new Color(0, 0, 0, 150));
+        g2.setColor(OVERLAY_COLOR);
         g2.fillRect(0, 0, getWidth(), getHeight());
-        g2.setFont(new Font("Monospaced", Font.BOLD, 50));
+        g2.setFont(BANNER_FONT);
         g2.setColor(Color.GREEN);
         String msg = "YOU WIN!";
         FontMetrics fm = g2.getFontMetrics();
@@ -163,9 +522,9 @@ public class GamePanel extends JPanel implements ActionListener {
     }
 
     private void drawPauseScreen(Graphics2D g2) {
-        g2.setColor(new Color(0, 0, 0, 150));
+        g2.setColor(OVERLAY_COLOR);
         g2.fillRect(0, 0, getWidth(), getHeight());
-        g2.setFont(new Font("Monospaced", Font.BOLD, 50));
+        g2.setFont(BANNER_FONT);
         g2.setColor(Color.WHITE);
         String msg = "PAUSED";
         FontMetrics fm = g2.getFontMetrics();
@@ -174,62 +533,57 @@ public class GamePanel extends JPanel implements ActionListener {
 
     @Override
     protected void paintComponent(Graphics g) {
+        TickProfiler p = profiler;
+        long paintStart = p != null ? System.nanoTime() : 0;
         super.paintComponent(g);
         Graphics2D g2 = (Graphics2D) g;
+        GameSnapshot snapshot = simulation.getSnapshot();
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        
-        g2.setStroke(new BasicStroke(3));
-        g2.setColor(Color.decode("#555577"));
-        for (Wire w : gameState.getWires()) {
-            g2.drawLine(w.getStart().x, w.getStart().y, w.getEnd().x, w.getEnd().y);
-        }
+
+        // Static layer first; Graphics only copies the part inside the clip
+        Camera camera = gameController.getCamera();
+        g2.drawImage(getStaticLayer(snapshot, camera), 0, 0, null);
         
         // --- UPDATED: Drawing logic now asks the controller for wiring state ---
         if (gameController.isWiring()) {
-            g2.setColor(Color.GREEN);
+            Graphics2D world = (Graphics2D) g2.create(); // The controller works in world coordinates
+            world.transform(camera.getTransform());
+            world.setStroke(WIRE_STROKE);
+            world.setColor(Color.GREEN);
             Point start = gameController.getWireStartPoint();
-            Point mouse = gameController.getCurrentMousePos();
+            Point snap = gameController.getSnapPoint();
+            Point mouse = snap != null ? snap : gameController.getCurrentMousePos();
             if (start != null && mouse != null) {
-                g2.drawLine(start.x, start.y, mouse.x, mouse.y);
-            }
-        }
-        
-        for (SystemNode s : gameState.getSystems()) {
-            Point loc = s.getLocation();
-            int w = 40, h = 40;
-            g2.setColor(Color.LIGHT_GRAY);
-            g2.fillRect(loc.x - w / 2, loc.y - h / 2, w, h);
-            g2.setColor(Color.BLUE);
-            for (Point p : s.getInputPorts()) {
-                g2.fillRect(p.x - SystemNode.PORT_SIZE / 2, p.y - SystemNode.PORT_SIZE / 2, SystemNode.PORT_SIZE, SystemNode.PORT_SIZE);
+                world.drawLine(start.x, start.y, mouse.x, mouse.y);
             }
-            g2.setColor(Color.ORANGE);
-            for (Point p : s.getOutputPorts()) {
-                g2.fillRect(p.x - SystemNode.PORT_SIZE / 2, p.y - SystemNode.PORT_SIZE / 2, SystemNode.PORT_SIZE, SystemNode.PORT_SIZE);
-            }
-        }
-        for (Packet p : gameState.getPackets()) {
-            Point pos = p.getPosition();
-            int sz = p.getSize();
-            if (p.getShape() == Packet.Shape.SQUARE) {
-                g2.setColor(Color.YELLOW);
-                g2.fillRect(pos.x - sz / 2, pos.y - sz / 2, sz, sz);
-            } else {
-                g2.setColor(Color.CYAN);
-                g2.fill(new Polygon(new int[]{pos.x, pos.x - sz / 2, pos.x + sz / 2}, new int[]{pos.y - sz / 2, pos.y + sz / 2, pos.y + sz / 2}, 3));
+            if (snap != null) {
+                // Ring around the input port the wire will snap to
+                int r = SystemNode.PORT_SIZE;
+                world.drawOval(snap.x - r, snap.y - r, 2 * r, 2 * r);
             }
+            world.dispose();
         }
+
+        packetRenderer.draw(g2, snapshot, getGraphicsConfiguration(), camera);
         
-        drawHUD(g2);
+        drawHUD(g2, snapshot);
 
-        if (gameState.getCurrentStatus() == GameState.GameStatus.PAUSED) {
+        if (snapshot.getStatus() == GameState.GameStatus.PAUSED) {
             drawPauseScreen(g2);
         }
-        if (gameState.getCurrentStatus() == GameState.GameStatus.GAME_OVER) {
+        if (snapshot.getStatus() == GameState.GameStatus.GAME_OVER) {
             drawGameOver(g2);
         }
-        if (gameState.getCurrentStatus() == GameState.GameStatus.WIN) {
+        if (snapshot.getStatus() == GameState.GameStatus.WIN) {
             drawWinScreen(g2);
         }
+        FlowStats flow = flowStats;
+        if (flow != null) {
+            drawFlowOverlay(g2, flow, snapshot);
+        }
+        if (p != null) {
+            drawDebugOverlay(g2, p);
+            p.record(Phase.PAINT, System.nanoTime() - paintStart);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+package com.yourname.blueprinthell.view;
+
+import com.yourname.blueprinthell.level.LevelIndex;
+import com.yourname.blueprinthell.level.Levels;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.util.concurrent.ExecutionException;
+
+public class LevelsPanel extends JPanel {
+    private static final String DEFAULT_TITLE = "Default (4 systems)";
+
+    private final DefaultListModel<Object> levels = new DefaultListModel<>();
+    private final JList<Object> levelList = new JList<>(levels);
+
+    public LevelsPanel(CardLayout cardLayout, JPanel parentPanel, GamePanel gamePanel) {
+        setLayout(new BorderLayout());
+        setBackground(Color.DARK_GRAY);
+
+        JLabel title = new JLabel("Levels", SwingConstants.CENTER);
+        title.setFont(new Font("Monospaced", Font.BOLD, 40));
+        title.setForeground(Color.WHITE);
+        add(title, BorderLayout.NORTH);
+
+        levelList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        levelList.setFont(new Font("Monospaced", Font.PLAIN, 16));
+        JScrollPane scroll = new JScrollPane(levelList);
+        scroll.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+        scroll.setOpaque(false);
+        add(scroll, BorderLayout.CENTER);
+
+        JButton playButton = new JButton("Play");
+        JButton backButton = new JButton("Back");
+        playButton.addActionListener(e -> {
+            Object selected = levelList.getSelectedValue();
+            String level = selected instanceof LevelIndex.Entry entry ? entry.getId() : Levels.DEFAULT;
+            try {
+                gamePanel.startLevel(level);
+                cardLayout.show(parentPanel, "game");
+            } catch (RuntimeException ex) {
+                JOptionPane.showMessageDialog(this, "Could not load the level: " + ex.getMessage());
+            }
+        });
+        backButton.addActionListener(e -> cardLayout.show(parentPanel, "menu"));
+        JPanel buttons = new JPanel(new GridLayout(1, 2, 10, 10));
+        buttons.setOpaque(false);
+        buttons.add(playButton);
+        buttons.add(backButton);
+        add(buttons, BorderLayout.SOUTH);
+
+        // The list is refreshed from the cached index every time the panel is shown
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentShown(ComponentEvent e) {
+                refresh();
+            }
+        });
+        levels.addElement(DEFAULT_TITLE);
+        levelList.setSelectedIndex(0);
+    }
+
+    private void refresh() {
+        new SwingWorker<LevelIndex, Void>() {
+            @Override
+            protected LevelIndex doInBackground() throws Exception {
+                return LevelIndex.load(Levels.getLevelDirectory());
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    LevelIndex index = get();
+                    Object selected = levelList.getSelectedValue();
+                    levels.clear();
+                    levels.addElement(DEFAULT_TITLE);
+                    for (LevelIndex.Entry entry : index.getEntries()) {
+                        levels.addElement(entry);
+                    }
+                    levelList.setSelectedValue(selected, true);
+                    if (levelList.isSelectionEmpty()) {
+                        levelList.setSelectedIndex(0);
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    System.err.println("Could not list levels: " + e.getMessage());
+                }
+            }
+        }.execute();
+    }
+}
@@ -7,11 +7,12 @@ import java.awt.*;
 public class MainMenuPanel extends JPanel {
     // --- UPDATED: The constructor now accepts the GamePanel ---
     public MainMenuPanel(CardLayout cardLayout, JPanel parentPanel, GamePanel gamePanel) {
-        setLayout(new GridLayout(4, 1, 10, 10));
+        setLayout(new GridLayout(5, 1, 10, 10));
         setBackground(Color.DARK_GRAY);
         setBorder(BorderFactory.createEmptyBorder(50, 200, 50, 200));
 
         JButton startButton = new JButton("Start Game");
+        JButton continueButton = new JButton("Continue");
         JButton levelsButton = new JButton("Levels");
         JButton settingsButton = new JButton("Settings");
         JButton exitButton = new JButton("Exit"); // --- NEW: Exit button ---
@@ -22,10 +23,22 @@ public class MainMenuPanel extends JPanel {
             cardLayout.show(parentPanel, "game");
         });
 
+        // Resumes the game saved from the pause menu
+        continueButton.addActionListener(e -> {
+            if (gamePanel.loadGame()) {
+                cardLayout.show(parentPanel, "game");
+            } else {
+                JOptionPane.showMessageDialog(this, "No saved game could be loaded.");
+            }
+        });
+
+        levelsButton.addActionListener(e -> cardLayout.show(parentPanel, "levels"));
+
         // --- NEW: The exit button closes the application ---
         exitButton.addActionListener(e -> System.exit(0));
 
         add(startButton);
+        add(continueButton);
         add(levelsButton);
         add(settingsButton);
         add(exitButton);
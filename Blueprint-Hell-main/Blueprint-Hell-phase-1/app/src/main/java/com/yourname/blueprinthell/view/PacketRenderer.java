@@ -0,0 +1,98 @@
+package com.yourname.blueprinthell.view;
+
+import com.yourname.blueprinthell.controller.Camera;
+import com.yourname.blueprinthell.model.GameSnapshot;
+import com.yourname.blueprinthell.model.Packet;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Draws the packets of a snapshot as pre-rendered sprites, one per shape and on-screen size.
+ * Packets are drawn shape by shape so consecutive draws reuse the same image, and packets
+ * outside the clip are skipped before any drawing call is made. Zoomed far out, where a sprite
+ * would be a few pixels wide, each packet is just a dot in its shape's colour.
+ */
+class PacketRenderer {
+    private static final int PADDING = 1; // Room for anti-aliased edges
+    private static final Packet.Shape[] SHAPES = Packet.Shape.values();
+    private static final int DOT_SIZE = 2; // Packets no bigger than this on screen are drawn as dots
+
+    private BufferedImage[][] sprites = new BufferedImage[SHAPES.length][0]; // [shape][size]
+
+    void draw(Graphics2D g2, GameSnapshot snapshot, GraphicsConfiguration gc, Camera camera) {
+        Rectangle clip = g2.getClipBounds();
+        int clipMinX = clip == null ? Integer.MIN_VALUE : clip.x;
+        int clipMinY = clip == null ? Integer.MIN_VALUE : clip.y;
+        int clipMaxX = clip == null ? Integer.MAX_VALUE : clip.x + clip.width;
+        int clipMaxY = clip == null ? Integer.MAX_VALUE : clip.y + clip.height;
+        double scale = camera.getScale();
+
+        int count = snapshot.getPacketCount();
+        for (Packet.Shape shape : SHAPES) {
+            g2.setColor(colorOf(shape)); // For dots
+            for (int i = 0; i < count; i++) {
+                if (snapshot.getPacketShape(i) != shape) {
+                    continue;
+                }
+                int size = (int) Math.round(snapshot.getPacketSize(i) * scale);
+                int x = camera.toScreenX(snapshot.getPacketX(i));
+                int y = camera.toScreenY(snapshot.getPacketY(i));
+                if (size <= DOT_SIZE) {
+                    if (x >= clipMinX && y >= clipMinY && x < clipMaxX && y < clipMaxY) {
+                        g2.fillRect(x - DOT_SIZE / 2, y - DOT_SIZE / 2, DOT_SIZE, DOT_SIZE);
+                    }
+                    continue;
+                }
+                int left = x - size / 2 - PADDING;
+                int top = y - size / 2 - PADDING;
+                int extent = size + 2 * PADDING;
+                if (left >= clipMaxX || top >= clipMaxY || left + extent <= clipMinX || top + extent <= clipMinY) {
+                    continue;
+                }
+                g2.drawImage(sprite(shape, size, gc), left, top, null);
+            }
+        }
+    }
+
+    private static Color colorOf(Packet.Shape shape) {
+        return shape == Packet.Shape.SQUARE ? Color.YELLOW : Color.CYAN;
+    }
+
+    private BufferedImage sprite(Packet.Shape shape, int size, GraphicsConfiguration gc) {
+        BufferedImage[] bySize = sprites[shape.ordinal()];
+        if (size >= bySize.length) {
+            bySize = Arrays.copyOf(bySize, size + 1);
+            sprites[shape.ordinal()] = bySize;
+        }
+        if (bySize[size] == null) {
+            bySize[size] = render(shape, size, gc);
+        }
+        return bySize[size];
+    }
+
+    // Same geometry the panel used to draw directly, moved into the sprite's own coordinates
+    private static BufferedImage render(Packet.Shape shape, int size, GraphicsConfiguration gc) {
+        int extent = Math.max(1, size + 2 * PADDING);
+        BufferedImage image = gc != null
+                ? gc.createCompatibleImage(extent, extent, Transparency.TRANSLUCENT)
+                : new BufferedImage(extent, extent, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = image.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        int c = size / 2 + PADDING;
+        g2.setColor(colorOf(shape));
+        if (shape == Packet.Shape.SQUARE) {
+            g2.fillRect(c - size / 2, c - size / 2, size, size);
+        } else {
+            g2.fill(new Polygon(new int[]{c, c - size / 2, c + size / 2}, new int[]{c - size / 2, c + size / 2, c + size / 2}, 3));
+        }
+        g2.dispose();
+        return image;
+    }
+}
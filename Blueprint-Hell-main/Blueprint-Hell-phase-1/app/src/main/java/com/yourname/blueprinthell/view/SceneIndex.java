@@ -0,0 +1,88 @@
+package com.yourname.blueprinthell.view;
+
+import com.yourname.blueprinthell.model.GridCells;
+import com.yourname.blueprinthell.model.SystemNode;
+import com.yourname.blueprinthell.model.Wire;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Coarse grid over the systems and wires of the board shown, so the panel only draws what is in
+ * view. A system is filed under the cell holding its centre and a wire under every cell it passes
+ * through. Boards only ever grow, so each snapshot just adds what the index has not seen yet.
+ * Only used on the EDT.
+ */
+final class SceneIndex {
+    private static final int CELL_SIZE = 256;
+    // How far a system's drawing reaches from its centre: the body plus ports sticking out of it
+    private static final int SYSTEM_REACH = SystemNode.BODY_SIZE / 2 + SystemNode.PORT_SIZE;
+
+    private final Map<Long, List<SystemNode>> systemCells = new HashMap<>();
+    private final Map<Long, List<Wire>> wireCells = new HashMap<>();
+    private int indexedSystems = 0;
+    private int indexedWires = 0;
+    private final Set<Wire> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    void update(List<SystemNode> systems, List<Wire> wires) {
+        for (; indexedSystems < systems.size(); indexedSystems++) {
+            SystemNode s = systems.get(indexedSystems);
+            Point c = s.getLocation();
+            systemCells.computeIfAbsent(GridCells.key(cellOf(c.x), cellOf(c.y)), k -> new ArrayList<>()).add(s);
+        }
+        for (; indexedWires < wires.size(); indexedWires++) {
+            addWire(wires.get(indexedWires));
+        }
+    }
+
+    /** Adds the systems that may show within the world area to out. */
+    void systemsIn(Rectangle world, List<SystemNode> out) {
+        int minCx = cellOf(world.x - SYSTEM_REACH);
+        int maxCx = cellOf(world.x + world.width + SYSTEM_REACH);
+        int minCy = cellOf(world.y - SYSTEM_REACH);
+        int maxCy = cellOf(world.y + world.height + SYSTEM_REACH);
+        for (int cx = minCx; cx <= maxCx; cx++) {
+            for (int cy = minCy; cy <= maxCy; cy++) {
+                List<SystemNode> here = systemCells.get(GridCells.key(cx, cy));
+                if (here != null) {
+                    out.addAll(here);
+                }
+            }
+        }
+    }
+
+    /** Adds the wires that may pass through the world area to out, each once. */
+    void wiresIn(Rectangle world, List<Wire> out) {
+        seen.clear();
+        for (int cx = cellOf(world.x); cx <= cellOf(world.x + world.width); cx++) {
+            for (int cy = cellOf(world.y); cy <= cellOf(world.y + world.height); cy++) {
+                List<Wire> here = wireCells.get(GridCells.key(cx, cy));
+                if (here == null) {
+                    continue;
+                }
+                for (Wire w : here) {
+                    if (seen.add(w)) {
+                        out.add(w);
+                    }
+                }
+            }
+        }
+    }
+
+    private void addWire(Wire w) {
+        GridCells.forEachCell(w, CELL_SIZE, cell -> {
+            wireCells.computeIfAbsent(cell, k -> new ArrayList<>()).add(w);
+            return true;
+        });
+    }
+
+    private static int cellOf(int coordinate) {
+        return GridCells.cellOf(coordinate, CELL_SIZE);
+    }
+}